@@ -0,0 +1,87 @@
+package com.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.java.security.JwtPrincipalResolver;
+import com.java.security.JwtUtils;
+import com.java.security.TokenRevocationList;
+import com.java.security.UserPrincipal;
+
+/* What the authentication filter does per request: bearer token -> UserPrincipal -> Authentication
+ *
+ * statelessPrincipal=true  -> principal from the token claims, no database
+ * statelessPrincipal=false -> user loaded by email (through the query cache
+ *                             and second-level cache as configured)
+ * flagged                  -> stateless mode, but the user was revoked so every
+ *                             token goes to the database like in the other mode
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthFilterBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean statelessPrincipal;
+
+    private BenchmarkData data;
+    private JwtPrincipalResolver resolver;
+    private String header;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(0, "jwt.stateless-principal=" + statelessPrincipal);
+        resolver = data.bean(JwtPrincipalResolver.class);
+        JwtUtils jwtUtils = data.bean(JwtUtils.class);
+        header = "Bearer " + jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(data.user()));
+    }
+
+    // only set up for authenticateFlagged, every benchmark method runs in its own fork
+    @State(Scope.Benchmark)
+    public static class Flagged {
+
+        @Setup
+        public void revoke(AuthFilterBenchmark benchmark) {
+            benchmark.data.bean(TokenRevocationList.class).revokeUser(benchmark.data.user().getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticate(header);
+    }
+
+    @Benchmark
+    public Authentication authenticateFlagged(Flagged flagged) {
+        return authenticate(header);
+    }
+
+    private Authentication authenticate(String authorization) {
+        String token = authorization.substring("Bearer ".length());
+        return resolver.resolve(token)
+                .map(principal -> new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.java.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.java.config.GmailConfig;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+import com.java.security.JwtPrincipalResolver;
+import com.java.security.JwtUtils;
+import com.java.security.TokenRevocationList;
+import com.java.service.ApplicationSearchIndex;
+import com.java.service.ApplicationStatsService;
+import com.java.service.GmailMessageDedupe;
+import com.java.service.JobApplicationService;
+
+/* The app as the benchmarks see it
+ *
+ * persistence (Flyway migrations, JPA, the production hibernate settings)
+ * plus the services under test, no web layer and no metrics aspect so the
+ * numbers are the code itself
+ *
+ * start(n) boots it on a fresh in-memory H2 database and seeds one user with
+ * n applications, always the same data for the same n (fixed random seed)
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan("com.java.model")
+@EnableJpaRepositories("com.java.repository")
+@Import({ JobApplicationService.class, ApplicationStatsService.class, ApplicationSearchIndex.class,
+        GmailMessageDedupe.class, JwtUtils.class, TokenRevocationList.class, JwtPrincipalResolver.class, GmailConfig.class })
+public class BenchmarkApplication {
+
+    // words the seeded companies and positions are made of, the search benchmarks query them
+    static final String[] COMPANY_WORDS = { "Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne",
+            "Cyberdyne", "Soylent", "Wonka", "Tyrell", "Aperture", "Massive", "Dynamic", "Northwind", "Contoso" };
+    static final String[] POSITIONS = { "Backend Engineer", "Frontend Engineer", "Data Engineer", "SRE",
+            "Platform Engineer", "Product Manager", "Data Scientist", "QA Engineer", "Security Engineer",
+            "Mobile Developer" };
+    static final String[] LOCATIONS = { "Berlin", "London", "Remote", "New York", "Bangalore", "Toronto" };
+
+    private static final int SEED_CHUNK = 5_000;
+
+    public static BenchmarkData start(int applications) {
+        return start(applications, new String[0]);
+    }
+
+    // extra properties (name=value) for benchmarks that compare settings
+    public static BenchmarkData start(int applications, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .properties("spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .properties(properties)
+                .run();
+
+        User user = context.getBean(UserRepository.class)
+                .save(new User("bench@example.com", "not-a-real-password", "Bench", "User"));
+
+        JobApplicationService service = context.getBean(JobApplicationService.class);
+        Random random = new Random(42);
+        for (int from = 0; from < applications; from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK, applications);
+            List<JobApplication> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(application(user, i, random));
+            }
+            service.createApplications(chunk, user);
+        }
+
+        return new BenchmarkData(context, user);
+    }
+
+    // one seeded application, spread over the last year, every status and source
+    static JobApplication application(User user, int i, Random random) {
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        ApplicationSource[] sources = ApplicationSource.values();
+
+        String company = COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)] + " "
+                + COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)] + " " + (i % 500);
+        JobApplication application = new JobApplication(user, company, POSITIONS[random.nextInt(POSITIONS.length)],
+                statuses[random.nextInt(statuses.length)], sources[random.nextInt(sources.length)]);
+
+        LocalDate today = LocalDate.now();
+        application.setAppliedDate(today.minusDays(random.nextInt(365)));
+        application.setLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        application.setJobType("Full-time");
+        application.setNotes("Referral from " + COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)]);
+        if (application.getStatus() == ApplicationStatus.INTERVIEW_SCHEDULED) {
+            application.setInterviewDate(today.plusDays(1 + random.nextInt(30)));
+        }
+        return application;
+    }
+}
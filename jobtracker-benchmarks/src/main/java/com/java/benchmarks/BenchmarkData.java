@@ -0,0 +1,18 @@
+package com.java.benchmarks;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.java.model.User;
+
+/* A started benchmark app and its seeded user, closed in the @TearDown of the benchmark */
+public record BenchmarkData(ConfigurableApplicationContext context, User user) implements AutoCloseable {
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.model.JobApplication;
+import com.java.service.JobApplicationService;
+
+/* Inserting many applications: createApplications (JDBC batches, pooled ids,
+ * one counter update) against createApplication once per row
+ * single shot, every measured call inserts a fresh set of rows
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private BenchmarkData data;
+    private JobApplicationService service;
+    private final Random random = new Random(7);
+
+    private List<JobApplication> batch;
+
+    @Setup(Level.Trial)
+    public void start() {
+        data = BenchmarkApplication.start(0);
+        service = data.bean(JobApplicationService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void newRows() {
+        batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(BenchmarkApplication.application(data.user(), i, random));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public int batched() {
+        return service.createApplications(batch, data.user());
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        for (JobApplication application : batch) {
+            service.createApplication(application, data.user());
+        }
+        return batch.size();
+    }
+}
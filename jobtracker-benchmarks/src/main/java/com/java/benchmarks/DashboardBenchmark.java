@@ -0,0 +1,77 @@
+package com.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.dto.DashboardStats;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.repository.JobApplicationRepository;
+import com.java.service.ApplicationStatsService;
+import com.java.service.JobApplicationService;
+
+/* Dashboard assembly (getApplicationStats) by number of applications of the user
+ * the counters should not depend on the size, the dashboard query only on the
+ * number of recent applications
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int applications;
+
+    private BenchmarkData data;
+    private JobApplicationService service;
+    private ApplicationStatsService statsService;
+    private JobApplicationRepository repository;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(applications);
+        service = data.bean(JobApplicationService.class);
+        statsService = data.bean(ApplicationStatsService.class);
+        repository = data.bean(JobApplicationRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public DashboardStats applicationStats() {
+        return service.getApplicationStats(data.user());
+    }
+
+    @Benchmark
+    public ApplicationStatsService.Counts counters() {
+        return statsService.getCounts(data.user().getId());
+    }
+
+    @Benchmark
+    public long countByStatus() {
+        return service.countApplicationByStatus(data.user(), ApplicationStatus.INTERVIEW_SCHEDULED);
+    }
+
+    // the COUNT(*) query the stored counter replaced
+    @Benchmark
+    public long countByStatusQuery() {
+        return repository.countApplicationByStatus(data.user(), ApplicationStatus.INTERVIEW_SCHEDULED);
+    }
+}
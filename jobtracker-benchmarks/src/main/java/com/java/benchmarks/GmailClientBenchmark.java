@@ -0,0 +1,57 @@
+package com.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.api.services.gmail.Gmail;
+import com.java.config.GmailConfig;
+
+/* Getting a gmail client for a call: the per-user cached client against
+ * building a new one (credentials, request initializer, client) every time
+ * no request is sent, only the client setup is measured
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GmailClientBenchmark {
+
+    private static final String ACCESS_TOKEN = "benchmark-access-token";
+
+    private BenchmarkData data;
+    private GmailConfig gmailConfig;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(0);
+        gmailConfig = data.bean(GmailConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Gmail cachedClient() throws Exception {
+        return gmailConfig.getGmailService(data.user().getId(), ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public Gmail newClient() throws Exception {
+        return gmailConfig.getGmailService(ACCESS_TOKEN);
+    }
+}
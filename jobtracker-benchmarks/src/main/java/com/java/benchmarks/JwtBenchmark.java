@@ -0,0 +1,75 @@
+package com.java.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.security.JwtUtils;
+
+import io.jsonwebtoken.Claims;
+
+/* Tokens per second of JwtUtils, generate and each way of reading a token
+ * parseClaims is what the authentication filter should use, validateToken
+ * plus extractEmailFromToken parse the same token twice
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private BenchmarkData data;
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(0);
+        jwtUtils = data.bean(JwtUtils.class);
+        token = jwtUtils.generateTokenFromEmail(data.user().getEmail());
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateTokenFromEmail("bench@example.com");
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtUtils.extractEmailFromToken(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseClaims() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    // the old filter path, one token read twice
+    @Benchmark
+    public String validateThenExtract() {
+        return jwtUtils.validateToken(token) ? jwtUtils.extractEmailFromToken(token) : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.dto.ApplicationPage;
+import com.java.service.JobApplicationService;
+
+/* Keyset pagination over the (user_id, created_at, id) index
+ * a page deep in the list should cost the same as the first one at every size,
+ * run with larger sizes for the timings: -Djmh.args="Listing -p applications=1000000",
+ * the plans themselves are checked on 1M rows by ListingQueryPlan (exec:exec@query-plan)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({ "1000", "10000" })
+    public int applications;
+
+    private BenchmarkData data;
+    private JobApplicationService service;
+
+    // cursor of the page in the middle of the list
+    private String middleCursor;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(applications);
+        service = data.bean(JobApplicationService.class);
+
+        String cursor = null;
+        for (int page = 0; page < applications / PAGE_SIZE / 2; page++) {
+            cursor = service.getApplicationPage(data.user(), cursor, PAGE_SIZE).nextCursor();
+        }
+        middleCursor = cursor;
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public ApplicationPage firstPage() {
+        return service.getApplicationPage(data.user(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ApplicationPage middlePage() {
+        return service.getApplicationPage(data.user(), middleCursor, PAGE_SIZE);
+    }
+}
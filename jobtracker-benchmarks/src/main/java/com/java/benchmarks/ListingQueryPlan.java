@@ -0,0 +1,199 @@
+package com.java.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+
+/* Query plans of the listing queries on a big table
+ *
+ * seeds --applications rows (default 1,000,000) spread over --users users with
+ * plain JDBC batches, then runs EXPLAIN for the first keyset page and a page
+ * after a cursor in the middle of one user's list, prints both plans and exits
+ * with 1 when a plan does not use the (user_id, created_at, id) index from V2
+ *
+ * point it at a throwaway MySQL to see the production plan, without a url it
+ * uses an in-memory H2 database:
+ *   ../mvnw package exec:exec@query-plan -Dplan.args="--jdbc-url jdbc:mysql://localhost:3306/jobtracker_plan?rewriteBatchedStatements=true --username root --password secret"
+ */
+public class ListingQueryPlan {
+
+    static final String KEYSET_INDEX = "idx_job_app_user_created";
+
+    private static final int PAGE_SIZE = 50;
+    private static final int BATCH = 5_000;
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> options = parse(args);
+        int applications = Integer.parseInt(options.getOrDefault("applications", "1000000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "100"));
+
+        List<String> properties = new ArrayList<>();
+        if (options.containsKey("jdbc-url")) {
+            properties.add("spring.datasource.url=" + options.get("jdbc-url"));
+            properties.add("spring.datasource.username=" + options.getOrDefault("username", ""));
+            properties.add("spring.datasource.password=" + options.getOrDefault("password", ""));
+        }
+
+        boolean indexUsed;
+        try (BenchmarkData data = BenchmarkApplication.start(0, properties.toArray(String[]::new))) {
+
+            List<Long> userIds = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                userIds.add(data.bean(UserRepository.class)
+                        .save(new User("plan" + i + "@example.com", "not-a-real-password")).getId());
+            }
+
+            DataSource dataSource = data.bean(DataSource.class);
+            try (Connection connection = dataSource.getConnection()) {
+                System.out.printf("Seeding %d applications for %d users...%n", applications, users);
+                seed(connection, userIds, applications);
+                analyze(connection);
+
+                // the first seeded user, every user has about the same number of rows
+                long userId = userIds.get(0);
+                Object[] middle = middleRow(connection, userId);
+
+                String firstPage = "SELECT * FROM job_applications WHERE user_id = " + userId
+                        + " ORDER BY created_at DESC, id DESC LIMIT " + (PAGE_SIZE + 1);
+                String nextPage = "SELECT * FROM job_applications WHERE user_id = " + userId
+                        + " AND (created_at < TIMESTAMP '" + middle[0] + "' OR (created_at = TIMESTAMP '" + middle[0]
+                        + "' AND id < " + middle[1] + ")) ORDER BY created_at DESC, id DESC LIMIT " + (PAGE_SIZE + 1);
+
+                indexUsed = explain(connection, "first page", firstPage) & explain(connection, "page after cursor", nextPage);
+            }
+        }
+
+        if (!indexUsed) {
+            System.out.println("A listing query does not use " + KEYSET_INDEX);
+            System.exit(1);
+        }
+        System.out.println("Both listing queries use " + KEYSET_INDEX);
+    }
+
+    // every column of every plan row, MySQL answers with a table, H2 with one line of text
+    private static boolean explain(Connection connection, String name, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            int columns = rows.getMetaData().getColumnCount();
+            while (rows.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    plan.append(rows.getMetaData().getColumnLabel(i)).append('=').append(rows.getString(i)).append(' ');
+                }
+                plan.append('\n');
+            }
+        }
+
+        boolean used = plan.toString().toLowerCase(Locale.ROOT).contains(KEYSET_INDEX);
+        System.out.printf("%n%s (%s):%n%s%n", name, used ? "uses " + KEYSET_INDEX : "INDEX NOT USED", plan);
+        return used;
+    }
+
+    // round robin over the users, created_at one second apart so the order is the insert order
+    private static void seed(Connection connection, List<Long> userIds, int applications) throws SQLException {
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        ApplicationSource[] sources = ApplicationSource.values();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusSeconds(applications);
+
+        long firstId = nextFreeId(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO job_applications "
+                + "(id, user_id, company_name, position, status, source, applied_date, created_at, updated_at, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+
+            for (int i = 0; i < applications; i++) {
+                Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+                insert.setLong(1, firstId + i);
+                insert.setLong(2, userIds.get(i % userIds.size()));
+                insert.setString(3, BenchmarkApplication.COMPANY_WORDS[random.nextInt(BenchmarkApplication.COMPANY_WORDS.length)]
+                        + " " + (i % 500));
+                insert.setString(4, BenchmarkApplication.POSITIONS[random.nextInt(BenchmarkApplication.POSITIONS.length)]);
+                insert.setString(5, statuses[random.nextInt(statuses.length)].name());
+                insert.setString(6, sources[random.nextInt(sources.length)].name());
+                insert.setDate(7, java.sql.Date.valueOf(createdAt.toLocalDateTime().toLocalDate()));
+                insert.setTimestamp(8, createdAt);
+                insert.setTimestamp(9, createdAt);
+                insert.addBatch();
+
+                if ((i + 1) % BATCH == 0 || i == applications - 1) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // the rows bypass the id table generator, start after anything already there
+    private static long nextFreeId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM job_applications")) {
+            max.next();
+            return max.getLong(1) + 1_000_000;
+        }
+    }
+
+    // fresh statistics, without them the optimizer may not know how selective user_id is
+    private static void analyze(Connection connection) throws SQLException {
+        String database = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(database.contains("mysql") ? "ANALYZE TABLE job_applications" : "ANALYZE");
+        }
+    }
+
+    // (created_at, id) of the row in the middle of the user's list, the cursor of a deep page
+    private static Object[] middleRow(Connection connection, long userId) throws SQLException {
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT COUNT(*) FROM job_applications WHERE user_id = ?")) {
+            count.setLong(1, userId);
+            long rows;
+            try (ResultSet result = count.executeQuery()) {
+                result.next();
+                rows = result.getLong(1);
+            }
+
+            try (PreparedStatement row = connection.prepareStatement("SELECT created_at, id FROM job_applications "
+                    + "WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET " + rows / 2)) {
+                row.setLong(1, userId);
+                try (ResultSet result = row.executeQuery()) {
+                    result.next();
+                    return new Object[] { result.getTimestamp(1).toLocalDateTime().toString().replace('T', ' '),
+                            result.getLong(2) };
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,80 @@
+package com.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.dto.ApplicationRecord;
+import com.java.dto.ApplicationSummary;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.repository.JobApplicationRepository;
+import com.java.service.JobApplicationService;
+
+/* Entity to DTO mapping against reading DTOs straight from the query
+ *
+ * summaries   -> select new ApplicationSummary(...), read only, nothing managed
+ * entities    -> full entities (managed, dirty checking snapshots) mapped to ApplicationRecord
+ *
+ * the allocation difference per call shows with the gc profiler:
+ *   -Djmh.args="Mapping -prof gc"   (gc.alloc.rate.norm)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int applications;
+
+    @Param({ "50" })
+    public int pageSize;
+
+    private BenchmarkData data;
+    private JobApplicationService service;
+    private JobApplicationRepository repository;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(applications);
+        service = data.bean(JobApplicationService.class);
+        repository = data.bean(JobApplicationRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public List<ApplicationSummary> recentSummaries() {
+        return service.getRecentApplication(data.user(), pageSize);
+    }
+
+    @Benchmark
+    public List<ApplicationRecord> recentEntitiesToRecords() {
+        return service.getApplicationPage(data.user(), null, pageSize).items().stream()
+                .map(ApplicationRecord::from)
+                .toList();
+    }
+
+    // a whole status list, grows with the number of applications
+    @Benchmark
+    public List<ApplicationSummary> summariesByStatus() {
+        return repository.findByUserAndStatus(data.user(), ApplicationStatus.APPLIED);
+    }
+}
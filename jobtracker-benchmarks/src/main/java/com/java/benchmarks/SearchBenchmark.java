@@ -0,0 +1,77 @@
+package com.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.java.dto.ApplicationSearchResult;
+import com.java.model.JobApplication;
+import com.java.repository.JobApplicationRepository;
+import com.java.service.JobApplicationService;
+
+/* Search through the in-memory index (ranked ids, one query for the page,
+ * merged back in rank order) against the SQL LIKE fallback queries
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int applications;
+
+    private BenchmarkData data;
+    private JobApplicationService service;
+    private JobApplicationRepository repository;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkApplication.start(applications);
+        service = data.bean(JobApplicationService.class);
+        repository = data.bean(JobApplicationRepository.class);
+
+        // the first search builds the user's index, it is not part of the measurement
+        service.searchApplication(data.user(), "acme", 0, 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public ApplicationSearchResult indexSingleWord() {
+        return service.searchApplication(data.user(), "globex", 0, 20);
+    }
+
+    // two words, prefix and a typo, the hits of every word are merged and deduplicated
+    @Benchmark
+    public ApplicationSearchResult indexMultiWordFuzzy() {
+        return service.searchApplication(data.user(), "backnd eng", 0, 20);
+    }
+
+    @Benchmark
+    public List<JobApplication> sqlCompanyLike() {
+        return repository.findByUserCompanyName(data.user(), "globex");
+    }
+
+    @Benchmark
+    public List<JobApplication> sqlPositionLike() {
+        return repository.findByUserPosition(data.user(), "backend");
+    }
+}
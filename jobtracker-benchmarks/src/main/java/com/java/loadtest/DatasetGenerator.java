@@ -0,0 +1,169 @@
+package com.java.loadtest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+import com.java.service.JobApplicationService;
+
+/* Synthetic tenants for the load test
+ *
+ * applications per user  -> log-normal around the median, most users have a few dozen,
+ *                           a long tail has thousands (capped at maxApplications)
+ * status                 -> weighted like a real search, most applications are
+ *                           applied or rejected, few reach an offer
+ * source                 -> manual and gmail first, then job boards
+ * applied date           -> skewed to the recent past (exponential, mean 60 days, max 2 years)
+ * companies              -> a few big employers get most applications (zipf like)
+ *
+ * everything comes from one seed, the same options give the same dataset
+ * users are saved in batches through UserRepository, applications through
+ * JobApplicationService.createApplications so the stored counters are filled too
+ */
+public class DatasetGenerator {
+
+    // every generated user logs in with this password
+    static final String PASSWORD = "load-test-password";
+
+    static final String[] COMPANY_WORDS = { "Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne",
+            "Cyberdyne", "Soylent", "Wonka", "Tyrell", "Aperture", "Massive", "Dynamic", "Northwind", "Contoso",
+            "Vandelay", "Gringotts", "Oscorp", "Pied Piper" };
+    static final String[] POSITIONS = { "Backend Engineer", "Frontend Engineer", "Full Stack Developer",
+            "Data Engineer", "Site Reliability Engineer", "Platform Engineer", "Product Manager", "Data Scientist",
+            "QA Engineer", "Security Engineer", "Mobile Developer", "Engineering Manager" };
+    static final String[] LOCATIONS = { "Berlin", "London", "Remote", "New York", "Bangalore", "Toronto",
+            "Amsterdam", "San Francisco" };
+
+    private static final ApplicationStatus[] STATUSES = { ApplicationStatus.APPLIED, ApplicationStatus.UNDER_REVIEW,
+            ApplicationStatus.REJECTED, ApplicationStatus.INTERVIEW_SCHEDULED, ApplicationStatus.INTERVIEWED,
+            ApplicationStatus.OFFER_RECEIVED, ApplicationStatus.OFFER_ACCEPTED, ApplicationStatus.OFFER_DECLINED,
+            ApplicationStatus.WITHDRAWN };
+    private static final int[] STATUS_WEIGHTS = { 38, 14, 27, 6, 7, 3, 1, 1, 3 };
+
+    private static final ApplicationSource[] SOURCES = { ApplicationSource.MANUAL, ApplicationSource.GMAIL,
+            ApplicationSource.INDEED, ApplicationSource.COMPANY_WEBSITE, ApplicationSource.OTHER };
+    private static final int[] SOURCE_WEIGHTS = { 35, 30, 15, 15, 5 };
+
+    private static final int COMPANIES = 2_000;
+    private static final int USER_BATCH = 1_000;
+    private static final int APPLICATION_BATCH = 5_000;
+
+    private final UserRepository userRepository;
+    private final JobApplicationService jobApplicationService;
+    private final PasswordEncoder passwordEncoder;
+    private final Random random;
+
+    public DatasetGenerator(UserRepository userRepository, JobApplicationService jobApplicationService,
+            PasswordEncoder passwordEncoder, long seed) {
+        this.userRepository = userRepository;
+        this.jobApplicationService = jobApplicationService;
+        this.passwordEncoder = passwordEncoder;
+        this.random = new Random(seed);
+    }
+
+    /* Generated users and the ids of their applications, the scenario picks from them */
+    public record Tenant(User user, List<Long> applicationIds) {
+    }
+
+    public List<Tenant> generate(int users, int medianApplications, int maxApplications) {
+
+        // one bcrypt hash for everybody, hashing per user would take minutes for big datasets
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        List<User> saved = new ArrayList<>(users);
+        List<User> batch = new ArrayList<>(USER_BATCH);
+        for (int i = 0; i < users; i++) {
+            batch.add(new User("user" + i + "@load.test", passwordHash, "Load", "User " + i));
+            if (batch.size() == USER_BATCH || i == users - 1) {
+                saved.addAll(userRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+
+        List<Tenant> tenants = new ArrayList<>(users);
+        for (User user : saved) {
+            int count = applicationCount(medianApplications, maxApplications);
+            List<Long> ids = new ArrayList<>(count);
+
+            for (int from = 0; from < count; from += APPLICATION_BATCH) {
+                List<JobApplication> chunk = new ArrayList<>();
+                for (int i = from; i < Math.min(from + APPLICATION_BATCH, count); i++) {
+                    chunk.add(application(user));
+                }
+                jobApplicationService.createApplications(chunk, user);
+                chunk.forEach(application -> ids.add(application.getId()));
+            }
+            tenants.add(new Tenant(user, ids));
+        }
+        return tenants;
+    }
+
+    // log-normal, sigma 1.1 puts ~5% of the users above 6x the median
+    private int applicationCount(int median, int max) {
+        double count = median * Math.exp(1.1 * random.nextGaussian());
+        return (int) Math.max(1, Math.min(max, Math.round(count)));
+    }
+
+    private JobApplication application(User user) {
+        LocalDate today = LocalDate.now();
+
+        JobApplication application = new JobApplication(user, company(), pick(POSITIONS),
+                weighted(STATUSES, STATUS_WEIGHTS), weighted(SOURCES, SOURCE_WEIGHTS));
+
+        long daysAgo = Math.min(730, Math.round(-60 * Math.log(1 - random.nextDouble())));
+        application.setAppliedDate(today.minusDays(daysAgo));
+        application.setLocation(pick(LOCATIONS));
+        application.setJobType(random.nextInt(10) == 0 ? "Contract" : "Full-time");
+
+        switch (application.getStatus()) {
+            case INTERVIEW_SCHEDULED -> application.setInterviewDate(today.plusDays(1 + random.nextInt(21)));
+            case REJECTED, INTERVIEWED, OFFER_RECEIVED, OFFER_ACCEPTED, OFFER_DECLINED ->
+                    application.setResponseDate(application.getAppliedDate().plusDays(3 + random.nextInt(30)));
+            default -> {
+            }
+        }
+
+        if (random.nextInt(3) == 0) {
+            application.setNotes("Referral from " + pick(COMPANY_WORDS) + ", follow up in two weeks");
+        }
+        if (random.nextInt(4) == 0) {
+            application.setContactPerson("Recruiter " + (char) ('A' + random.nextInt(26)));
+        }
+        return application;
+    }
+
+    // rank r of COMPANIES is picked with weight 1/r
+    private String company() {
+        int rank = (int) Math.floor(Math.pow(COMPANIES + 1, random.nextDouble()));
+        int index = Math.min(rank, COMPANIES) - 1;
+        return COMPANY_WORDS[index % COMPANY_WORDS.length] + " "
+                + COMPANY_WORDS[(index / COMPANY_WORDS.length) % COMPANY_WORDS.length] + " " + (index / 400);
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private <T> T weighted(T[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
@@ -0,0 +1,126 @@
+package com.java.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/* Latencies of the load test per operation
+ *
+ * every worker records into its own Recorder (no sharing while the test runs),
+ * the recorders are merged once at the end and the percentiles come from the
+ * exact sorted samples, not from buckets
+ */
+public class LatencyReport {
+
+    public enum Operation {
+        LOGIN, LIST, SEARCH, DASHBOARD, UPDATE
+    }
+
+    /* One worker's samples, not thread safe */
+    public static class Recorder {
+
+        private final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> sizes = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        public void record(Operation operation, long nanos) {
+            long[] values = samples.computeIfAbsent(operation, op -> new long[1024]);
+            int size = sizes.getOrDefault(operation, 0);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                samples.put(operation, values);
+            }
+            values[size] = nanos;
+            sizes.put(operation, size + 1);
+        }
+
+        public void error(Operation operation) {
+            errors.merge(operation, 1, Integer::sum);
+        }
+    }
+
+    public record OperationStats(Operation operation, long count, long errors, double throughputPerSecond,
+            double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+    }
+
+    public record Result(String threadMode, int threads, int users, long applications, double seconds,
+            double totalThroughputPerSecond, List<OperationStats> operations) {
+    }
+
+    public static Result summarize(List<Recorder> recorders, String threadMode, int threads, int users,
+            long applications, double seconds) {
+
+        List<OperationStats> operations = new ArrayList<>();
+        long total = 0;
+
+        for (Operation operation : Operation.values()) {
+            int count = 0;
+            long errors = 0;
+            for (Recorder recorder : recorders) {
+                count += recorder.sizes.getOrDefault(operation, 0);
+                errors += recorder.errors.getOrDefault(operation, 0);
+            }
+            if (count == 0 && errors == 0) {
+                continue;
+            }
+
+            long[] merged = new long[count];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                int size = recorder.sizes.getOrDefault(operation, 0);
+                if (size > 0) {
+                    System.arraycopy(recorder.samples.get(operation), 0, merged, offset, size);
+                    offset += size;
+                }
+            }
+            Arrays.sort(merged);
+
+            operations.add(new OperationStats(operation, count, errors, count / seconds,
+                    millis(percentile(merged, 0.50)), millis(percentile(merged, 0.95)),
+                    millis(percentile(merged, 0.99)), millis(count == 0 ? 0 : merged[count - 1])));
+            total += count;
+        }
+
+        return new Result(threadMode, threads, users, applications, seconds, total / seconds, operations);
+    }
+
+    public static void print(Result result) {
+        System.out.printf("%nLoad test: %d %s threads, %d users, %d applications, %.0fs measured%n",
+                result.threads(), result.threadMode(), result.users(), result.applications(), result.seconds());
+        System.out.printf("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (OperationStats stats : result.operations()) {
+            System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", stats.operation(),
+                    stats.count(), stats.errors(), stats.throughputPerSecond(), stats.p50Millis(),
+                    stats.p95Millis(), stats.p99Millis(), stats.maxMillis());
+        }
+        System.out.printf("%-10s %10s %8s %10.1f%n", "total", "", "", result.totalThroughputPerSecond());
+    }
+
+    public static void write(Result result, File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+    }
+
+    // nearest rank
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
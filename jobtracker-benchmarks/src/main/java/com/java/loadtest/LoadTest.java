@@ -0,0 +1,218 @@
+package com.java.loadtest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.java.dto.ApplicationPage;
+import com.java.dto.ApplicationPatch;
+import com.java.dto.LoginRequest;
+import com.java.loadtest.DatasetGenerator.Tenant;
+import com.java.loadtest.LatencyReport.Operation;
+import com.java.loadtest.LatencyReport.Recorder;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+import com.java.service.AuthService;
+import com.java.service.JobApplicationService;
+
+/* End to end load test, the services are called in process from many threads
+ *
+ * every thread plays users one session after another:
+ *   log in through AuthService.authenticateUser, then SESSION_OPERATIONS of
+ *   list 35% | dashboard 30% | search 20% | update 15%
+ * users are picked at random, so the few heavy users of the skewed dataset
+ * show up in the tail latencies like they do in production
+ *
+ * options (all optional, --name value):
+ *   --users 200 --median-applications 40 --max-applications 5000 --seed 42
+ *   --threads 32 --thread-mode platform|virtual --duration 60 --warmup 10
+ *   --jdbc-url <url, default a fresh in-memory H2> --report target/load-test-report.json
+ *
+ * thread-mode virtual runs the test threads and the app (spring.threads.virtual.enabled)
+ * on virtual threads, it needs a java 21 runtime
+ *
+ *   ../mvnw package exec:exec@load-test -Dload.args="--users 2000 --threads 64 --thread-mode virtual"
+ */
+public class LoadTest {
+
+    private static final int SESSION_OPERATIONS = 10;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String[] SEARCHES = { "acme", "globex", "backend", "data engineer", "platform eng",
+            "hooli", "remote", "securty", "initec", "referral", "product manager", "stark wayne" };
+
+    private final AuthService authService;
+    private final JobApplicationService service;
+    private final List<Tenant> tenants;
+
+    LoadTest(AuthService authService, JobApplicationService service, List<Tenant> tenants) {
+        this.authService = authService;
+        this.service = service;
+        this.tenants = tenants;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> options = parse(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "200"));
+        int median = Integer.parseInt(options.getOrDefault("median-applications", "40"));
+        int max = Integer.parseInt(options.getOrDefault("max-applications", "5000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        String threadMode = options.getOrDefault("thread-mode", "platform");
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        File report = new File(options.getOrDefault("report", "target/load-test-report.json"));
+
+        boolean virtual = "virtual".equals(threadMode);
+        try (ConfigurableApplicationContext context = LoadTestApplication.start(options.get("jdbc-url"), virtual)) {
+
+            System.out.printf("Generating %d users (median %d applications)...%n", users, median);
+            DatasetGenerator generator = new DatasetGenerator(context.getBean(UserRepository.class),
+                    context.getBean(JobApplicationService.class), context.getBean(PasswordEncoder.class), seed);
+            List<Tenant> tenants = generator.generate(users, median, max);
+            long applications = tenants.stream().mapToLong(tenant -> tenant.applicationIds().size()).sum();
+
+            LoadTest test = new LoadTest(context.getBean(AuthService.class),
+                    context.getBean(JobApplicationService.class), tenants);
+
+            System.out.printf("Running %d %s threads for %ds (%ds warmup)...%n", threads, threadMode, duration, warmup);
+            List<Recorder> recorders = test.run(threads, virtual, duration, warmup, seed);
+
+            LatencyReport.Result result = LatencyReport.summarize(recorders, threadMode, threads, users,
+                    applications, duration - warmup);
+            LatencyReport.print(result);
+            LatencyReport.write(result, report);
+            System.out.println("Report written to " + report.getPath());
+        }
+    }
+
+    List<Recorder> run(int threads, boolean virtual, int durationSeconds, int warmupSeconds, long seed)
+            throws Exception {
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Recorder> recorders = new ArrayList<>();
+        ExecutorService executor = executor(threads, virtual);
+        for (int i = 0; i < threads; i++) {
+            Recorder recorder = new Recorder();
+            Random random = new Random(seed + i);
+            recorders.add(recorder);
+            executor.execute(() -> {
+                while (System.nanoTime() < end) {
+                    session(tenants.get(random.nextInt(tenants.size())), random, recorder, measureFrom, end);
+                }
+            });
+        }
+
+        executor.shutdown();
+        if (!executor.awaitTermination(durationSeconds + 300L, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        return recorders;
+    }
+
+    private void session(Tenant tenant, Random random, Recorder recorder, long measureFrom, long end) {
+        try {
+            User user = timed(recorder, Operation.LOGIN, measureFrom, () -> login(tenant.user()));
+            if (user == null) {
+                return;
+            }
+
+            for (int i = 0; i < SESSION_OPERATIONS && System.nanoTime() < end; i++) {
+                int roll = random.nextInt(100);
+                if (roll < 35) {
+                    ApplicationPage page = timed(recorder, Operation.LIST, measureFrom,
+                            () -> service.getApplicationPage(user, null, PAGE_SIZE));
+                    if (page != null && page.nextCursor() != null && random.nextInt(3) == 0) {
+                        timed(recorder, Operation.LIST, measureFrom,
+                                () -> service.getApplicationPage(user, page.nextCursor(), PAGE_SIZE));
+                    }
+                } else if (roll < 65) {
+                    timed(recorder, Operation.DASHBOARD, measureFrom, () -> service.getApplicationStats(user));
+                } else if (roll < 85) {
+                    String query = SEARCHES[random.nextInt(SEARCHES.length)];
+                    timed(recorder, Operation.SEARCH, measureFrom,
+                            () -> service.searchApplication(user, query, 0, PAGE_SIZE));
+                } else if (!tenant.applicationIds().isEmpty()) {
+                    Long id = tenant.applicationIds().get(random.nextInt(tenant.applicationIds().size()));
+                    ApplicationStatus status = ApplicationStatus.values()[random.nextInt(ApplicationStatus.values().length)];
+                    timed(recorder, Operation.UPDATE, measureFrom, () -> update(user, id, status));
+                }
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private User login(User user) {
+        // LoginRequest is abstract, the controllers bind a subclass of it
+        authService.authenticateUser(new LoginRequest(user.getEmail(), DatasetGenerator.PASSWORD) {
+        });
+        return authService.getCurrentUser();
+    }
+
+    // read then patch with the version read, like a client editing the application
+    private JobApplication update(User user, Long id, ApplicationStatus status) {
+        JobApplication current = service.getJobApplicationById(id, user)
+                .orElseThrow(() -> new RuntimeException("Application not found"));
+
+        ApplicationPatch patch = new ApplicationPatch();
+        patch.setVersion(current.getVersion());
+        patch.setStatus(status);
+        patch.setNotes("Updated by the load test");
+        return service.patchApplication(id, patch, user);
+    }
+
+    // runs the call and records its latency if it started inside the measured window, failures count as errors
+    private static <T> T timed(Recorder recorder, Operation operation, long measureFrom, Callable<T> call) {
+        long started = System.nanoTime();
+        boolean measured = started >= measureFrom;
+        try {
+            T result = call.call();
+            if (measured) {
+                recorder.record(operation, System.nanoTime() - started);
+            }
+            return result;
+        } catch (Exception e) {
+            if (measured) {
+                recorder.error(operation);
+            }
+            return null;
+        }
+    }
+
+    /* virtual threads through reflection so the module still compiles for java 17 */
+    private static ExecutorService executor(int threads, boolean virtual) throws Exception {
+        if (!virtual) {
+            return Executors.newFixedThreadPool(threads);
+        }
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,85 @@
+package com.java.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.java.config.GmailConfig;
+import com.java.repository.UserRepository;
+import com.java.security.JwtUtils;
+import com.java.security.TokenRevocationList;
+import com.java.security.UserPrincipal;
+import com.java.service.ApplicationSearchIndex;
+import com.java.service.ApplicationStatsService;
+import com.java.service.GmailMessageDedupe;
+import com.java.service.AuthService;
+import com.java.service.JobApplicationService;
+import com.java.service.UserCacheService;
+
+/* The app as the load test drives it, services called in process (no http)
+ *
+ * the tree has no security configuration yet, the authentication manager
+ * here is the standard one (bcrypt passwords, users loaded by email as
+ * UserPrincipal) so a login costs what it will cost in production
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan("com.java.model")
+@EnableJpaRepositories("com.java.repository")
+@Import({ AuthService.class, UserCacheService.class, JobApplicationService.class, ApplicationStatsService.class,
+        ApplicationSearchIndex.class, GmailMessageDedupe.class, JwtUtils.class, TokenRevocationList.class, GmailConfig.class })
+public class LoadTestApplication {
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public UserDetailsService userDetailsService(UserRepository userRepository) {
+        return email -> userRepository.findByEmail(email)
+                .map(UserPrincipal::create)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
+    }
+
+    /* jdbcUrl null -> a fresh in-memory H2 database,
+     * otherwise e.g. a local MySQL (the schema is migrated by Flyway on start)
+     */
+    static ConfigurableApplicationContext start(String jdbcUrl, boolean virtualThreads) {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url="
+                + (jdbcUrl != null ? jdbcUrl : "jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        properties.add("spring.threads.virtual.enabled=" + virtualThreads);
+
+        return new SpringApplicationBuilder(LoadTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+}
@@ -0,0 +1,14 @@
+package com.java.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/* Turns on @Async methods
+ * they run on spring boot's applicationTaskExecutor, a bounded platform thread
+ * pool by default and one virtual thread per task with spring.threads.virtual.enabled=true
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+}
@@ -5,16 +5,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.client.HttpClient;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.client.http.HttpRequestInitializer;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.gmail.Gmail;
@@ -36,9 +47,16 @@ public class GmailConfig {
    * this name is send to gmail while making api call for gmail access
    * to know which app is making call
    */
-
+  @Value("${spring.application.name:jobtracker}")
   private String applicationName;
 
+  /*
+   * base url of the gmail api, empty means the real google endpoint
+   * can point to a local fake gmail server for tests
+   */
+  @Value("${gmail.root-url:}")
+  private String rootUrl;
+
   /*
    * we also need json parser as it gmail api uses json for requests and responses
    */
@@ -57,15 +75,113 @@ public class GmailConfig {
    */
   private static final String CREDENTIALS_FILE = "/credentials.json";
 
+  /*
+   * connection pool of the shared transport
+   * every gmail call goes through the same pooled keep-alive http client
+   * so tls handshakes and connections are reused between calls and users
+   */
+  @Value("${gmail.http.max-connections:100}")
+  private int maxConnections = 100;
+
+  @Value("${gmail.http.max-connections-per-route:50}")
+  private int maxConnectionsPerRoute = 50;
+
+  @Value("${gmail.http.idle-timeout-seconds:30}")
+  private long idleTimeoutSeconds = 30;
+
+  /*
+   * per-user gmail clients are cached so a sync does not build a new client
+   * every time, access tokens live for about an hour so cached clients
+   * expire a bit before that
+   */
+  @Value("${gmail.client-cache.max-size:1000}")
+  private long clientCacheSize = 1000;
+
+  @Value("${gmail.client-cache.ttl-minutes:55}")
+  private long clientCacheTtlMinutes = 55;
+
+  // built once on first use, shared by every gmail client
+  private volatile HttpTransport transport;
+
+  // user id -> gmail client built for that user's current access token
+  private volatile Cache<Long, CachedClient> clients;
+
   /*
    * secure http transport layer for all Gmail APi calls
    * handles ssl/ tls security under the hood
    * marked @bean spring will manage this object and inject
    * it wherever needed
+   *
+   * backed by a pooled apache http client, closed with the context
    */
-  @Bean
-  public NetHttpTransport httpTransport() throws GeneralSecurityException, IOException {
-    return GoogleNetHttpTransport.newTrustedTransport();
+  @Bean(destroyMethod = "shutdown")
+  public HttpTransport httpTransport() {
+    return sharedTransport();
+  }
+
+  /*
+   * thread pool that runs gmail batch requests
+   * threads mostly wait on the network so there are more of them than cpus,
+   * the fetcher itself also limits how many batches one sync runs at once
+   */
+  @Bean(name = "gmailTaskExecutor")
+  @ConditionalOnThreading(Threading.PLATFORM)
+  public ThreadPoolTaskExecutor gmailTaskExecutor(@Value("${gmail.fetch.threads:8}") int threads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setThreadNamePrefix("gmail-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /*
+   * same executor in virtual thread mode (spring.threads.virtual.enabled=true, java 21)
+   * one virtual thread per batch request, a thread blocked on gmail no longer
+   * holds a platform thread, the limit only keeps the http connection pool
+   * from being flooded
+   */
+  @Bean(name = "gmailTaskExecutor")
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public SimpleAsyncTaskExecutor virtualGmailTaskExecutor(
+      @Value("${gmail.fetch.virtual-concurrency-limit:100}") int concurrencyLimit) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("gmail-");
+    executor.setVirtualThreads(true);
+    executor.setConcurrencyLimit(concurrencyLimit);
+    executor.setTaskTerminationTimeout(30_000);
+    return executor;
+  }
+
+  /*
+   * workers of the multi-user sync scheduler, each runs one user's sync at a time
+   * idle workers take the next due user from the shared queue, so a slow
+   * mailbox never holds up the others
+   */
+  @Bean(name = "gmailSyncExecutor")
+  @ConditionalOnThreading(Threading.PLATFORM)
+  public ThreadPoolTaskExecutor gmailSyncExecutor(@Value("${gmail.scheduler.workers:8}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setThreadNamePrefix("gmail-sync-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(60);
+    return executor;
+  }
+
+  /*
+   * same executor in virtual thread mode, one virtual thread per user sync
+   * no limit here, GmailSyncScheduler never hands out more than
+   * gmail.scheduler.max-in-flight syncs at once (its semaphore), so that
+   * setting is the sync concurrency in this mode, gmail.scheduler.workers is unused
+   */
+  @Bean(name = "gmailSyncExecutor")
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public SimpleAsyncTaskExecutor virtualGmailSyncExecutor() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("gmail-sync-");
+    executor.setVirtualThreads(true);
+    executor.setTaskTerminationTimeout(60_000);
+    return executor;
   }
 
   /*
@@ -79,13 +195,12 @@ public class GmailConfig {
 
   /*
    * creates a main method for getting a gmail Client
-   * creates a secure http transport connection like tls or ssl
+   * uses the shared pooled transport instead of a new connection each time
    * wrap the given access token into a googleCredentials
    * Build a gmail object
    * return to service class to call gmail api methods
    */
   public Gmail getGmailService(String accessToken) throws IOException, GeneralSecurityException {
-    NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
     GoogleCredentials credentials = GoogleCredentials.create(new AccessToken(accessToken, null))
         .createScoped(permissions);
 
@@ -95,9 +210,76 @@ public class GmailConfig {
 
         HttpRequestInitializer requestInitializer = new HttpCredentialsAdapter(credentials);
 
-    return new Gmail.Builder(httpTransport, json_factory, requestInitializer)
-        .setApplicationName(applicationName)
-        .build();
+    Gmail.Builder builder = new Gmail.Builder(sharedTransport(), json_factory, requestInitializer)
+        .setApplicationName(applicationName);
+
+    if (rootUrl != null && !rootUrl.isBlank()) {
+      builder.setRootUrl(rootUrl);
+    }
+
+    return builder.build();
+  }
+
+  /*
+   * cached gmail client of a user
+   * a client is reused while the user's access token stays the same,
+   * a refreshed token builds a new client and replaces the old one
+   */
+  public Gmail getGmailService(Long userId, String accessToken) throws IOException, GeneralSecurityException {
+    CachedClient cached = clients().getIfPresent(userId);
+    if (cached != null && cached.accessToken().equals(accessToken)) {
+      return cached.gmail();
+    }
+
+    Gmail gmail = getGmailService(accessToken);
+    clients().put(userId, new CachedClient(accessToken, gmail));
+    return gmail;
+  }
+
+  /*
+   * drop the cached client of a user
+   * called when the user's gmail tokens change or gmail is disconnected
+   */
+  public void evictGmailClient(Long userId) {
+    clients().invalidate(userId);
+  }
+
+  private HttpTransport sharedTransport() {
+    HttpTransport current = transport;
+    if (current == null) {
+      synchronized (this) {
+        if (transport == null) {
+          HttpClient httpClient = ApacheHttpTransport.newDefaultHttpClientBuilder()
+              .setMaxConnTotal(maxConnections)
+              .setMaxConnPerRoute(maxConnectionsPerRoute)
+              .evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS)
+              .build();
+          transport = new ApacheHttpTransport(httpClient);
+        }
+        current = transport;
+      }
+    }
+    return current;
+  }
+
+  private Cache<Long, CachedClient> clients() {
+    Cache<Long, CachedClient> current = clients;
+    if (current == null) {
+      synchronized (this) {
+        if (clients == null) {
+          clients = Caffeine.newBuilder()
+              .maximumSize(clientCacheSize)
+              .expireAfterWrite(Duration.ofMinutes(clientCacheTtlMinutes))
+              .build();
+        }
+        current = clients;
+      }
+    }
+    return current;
+  }
+
+  // gmail client together with the access token it was built with
+  private record CachedClient(String accessToken, Gmail gmail) {
   }
 
 
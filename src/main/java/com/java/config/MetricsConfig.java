@@ -0,0 +1,34 @@
+package com.java.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/* Metrics of the hot paths, all published on /actuator/prometheus
+ *
+ * jobtracker.service             -> every JobApplicationService and AuthService method
+ *                                   (@Timed on the class, tags class, method, exception)
+ * jobtracker.gmail.sync          -> one gmail sync of a user
+ * spring.data.repository.invocations -> every repository query, tagged with repository and method
+ *                                   (recorded by spring boot actuator)
+ * jwt.validations                -> token checks by result and exception type, see JwtUtils
+ * hikaricp.connections.acquire   -> time spent waiting for a pooled connection
+ *
+ * the histograms and percentiles are switched on in application.properties
+ * (management.metrics.distribution.*)
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "jobtracker.service";
+    public static final String GMAIL_SYNC_TIMER = "jobtracker.gmail.sync";
+    public static final String JWT_VALIDATIONS = "jwt.validations";
+
+    // makes @Timed work on any spring bean, a call through the proxy is one timer sample
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.java.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/* Hands every statement hibernate prepares to QueryCounter, the SQL is not changed
+ * registered with hibernate.session_factory.statement_inspector in application.properties
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,82 @@
+package com.java.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Records the SQL statements hibernate prepares on the current thread
+ *
+ *   try (QueryCounter.Scope scope = QueryCounter.start()) {
+ *       service.getApplicationStats(user);
+ *       assertThat(scope.count()).isLessThanOrEqualTo(2);
+ *   }
+ *
+ * statements come from QueryCountInspector, which hibernate calls for every
+ * statement it prepares (a JDBC batch of inserts counts once), nothing is
+ * recorded while no scope is open, so outside of tests and the dev request
+ * guard (QueryGuardFilter) this costs one thread local read per statement
+ *
+ * scopes nest, an inner scope sees its own statements and the outer scopes see them too
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements.add(sql);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final List<String> statements = new ArrayList<>();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        public List<String> statements() {
+            return Collections.unmodifiableList(statements);
+        }
+
+        /* Statements that ran more than once with the same SQL, in first-seen order
+         * the same select repeated for every row of a list is the usual N+1
+         */
+        public Map<String, Integer> repeated() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String sql : statements) {
+                counts.merge(sql, 1, Integer::sum);
+            }
+            counts.values().removeIf(count -> count < 2);
+            return counts;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.java.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/* Dev mode guard, counts the SQL statements of every request (see QueryCounter)
+ * and logs the requests that run too many of them, with the statements that
+ * repeat (N+1 suspects), only active with app.query-guard.enabled=true (profile "dev")
+ */
+@Component
+@ConditionalOnProperty(name = "app.query-guard.enabled", havingValue = "true")
+public class QueryGuardFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryGuardFilter.class);
+
+    // more statements than this in one request is logged
+    @Value("${app.query-guard.max-statements:20}")
+    private int maxStatements = 20;
+
+    // the same statement this many times in one request is logged as a possible N+1
+    @Value("${app.query-guard.repeat-threshold:5}")
+    private int repeatThreshold = 5;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            chain.doFilter(request, response);
+            report(request.getMethod() + " " + request.getRequestURI(), scope);
+        }
+    }
+
+    private void report(String request, QueryCounter.Scope scope) {
+        if (scope.count() > maxStatements) {
+            logger.warn("{} ran {} SQL statements (limit {}):\n  {}", request, scope.count(), maxStatements,
+                    String.join("\n  ", scope.statements()));
+        }
+
+        for (Map.Entry<String, Integer> repeated : scope.repeated().entrySet()) {
+            if (repeated.getValue() >= repeatThreshold) {
+                logger.warn("{} ran the same statement {} times, possible N+1: {}", request, repeated.getValue(),
+                        repeated.getKey());
+            }
+        }
+    }
+}
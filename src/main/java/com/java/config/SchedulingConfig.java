@@ -0,0 +1,11 @@
+package com.java.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/* Turns on @Scheduled background jobs (nightly stats reconciliation) */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,39 @@
+package com.java.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/* Position of the last application on a page
+ * pages are ordered by (createdAt desc, id desc) so these two values
+ * are enough to seek straight to the next page without an OFFSET
+ *
+ * encoded as an opaque url-safe token that the client sends back
+ */
+public record ApplicationCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ApplicationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+
+            if (split < 0) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+
+            return new ApplicationCursor(LocalDateTime.parse(raw.substring(0, split)),
+                    Long.valueOf(raw.substring(split + 1)));
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid page cursor", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.java.dto;
+
+import java.util.List;
+
+import com.java.model.JobApplication;
+
+/* One page of a user's applications
+ * nextCursor is null when there are no more pages
+ */
+public record ApplicationPage(List<JobApplication> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
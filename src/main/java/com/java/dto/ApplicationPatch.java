@@ -0,0 +1,58 @@
+package com.java.dto;
+
+import java.time.LocalDate;
+
+import com.java.model.JobApplication.ApplicationStatus;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Partial update of an application (PATCH)
+ * only the fields that are set are changed, null means "leave as it is"
+ * version is the version the client last read, the patch is rejected
+ * with a conflict when someone else changed the application since then
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationPatch {
+
+    @NotNull
+    private Long version;
+
+    @Size(min = 1, max = 100)
+    private String companyName;
+
+    @Size(min = 1, max = 100)
+    private String position;
+
+    private ApplicationStatus status;
+
+    private LocalDate appliedDate;
+
+    @Size(max = 200)
+    private String jobUrl;
+
+    @Size(max = 500)
+    private String notes;
+
+    @Size(max = 100)
+    private String location;
+
+    @Size(max = 50)
+    private String jobType;
+
+    private String salaryRange;
+
+    private LocalDate responseDate;
+
+    private LocalDate interviewDate;
+
+    @Size(max = 200)
+    private String contactPerson;
+
+    private String contactEmail;
+}
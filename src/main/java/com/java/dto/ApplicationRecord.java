@@ -0,0 +1,69 @@
+package com.java.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+
+/* One application as it appears in an import or export file (csv row or ndjson line)
+ * flat on purpose, no ids and no user, the owner is always the caller
+ * the property order is the csv column order of exports
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({ "companyName", "position", "status", "source", "appliedDate", "location", "jobType",
+        "salaryRange", "jobUrl", "contactPerson", "contactEmail", "responseDate", "interviewDate",
+        "gmailMessageId", "notes" })
+public record ApplicationRecord(
+        String companyName,
+        String position,
+        ApplicationStatus status,
+        ApplicationSource source,
+        LocalDate appliedDate,
+        String location,
+        String jobType,
+        String salaryRange,
+        String jobUrl,
+        String contactPerson,
+        String contactEmail,
+        LocalDate responseDate,
+        LocalDate interviewDate,
+        String gmailMessageId,
+        String notes) {
+
+    public static ApplicationRecord from(JobApplication application) {
+        return new ApplicationRecord(application.getCompanyName(), application.getPosition(),
+                application.getStatus(), application.getSource(), application.getAppliedDate(),
+                application.getLocation(), application.getJobType(), application.getSalaryRange(),
+                application.getJobUrl(), application.getContactPerson(), application.getContactEmail(),
+                application.getResponseDate(), application.getInterviewDate(),
+                application.getGmailMessageId(), application.getNotes());
+    }
+
+    // new unsaved entity, missing status and source fall back to the entity defaults
+    public JobApplication toEntity() {
+        JobApplication application = new JobApplication();
+        application.setCompanyName(companyName);
+        application.setPosition(position);
+        if (status != null) {
+            application.setStatus(status);
+        }
+        if (source != null) {
+            application.setSource(source);
+        }
+        application.setAppliedDate(appliedDate);
+        application.setLocation(location);
+        application.setJobType(jobType);
+        application.setSalaryRange(salaryRange);
+        application.setJobUrl(jobUrl);
+        application.setContactPerson(contactPerson);
+        application.setContactEmail(contactEmail);
+        application.setResponseDate(responseDate);
+        application.setInterviewDate(interviewDate);
+        application.setGmailMessageId(gmailMessageId);
+        application.setNotes(notes);
+        return application;
+    }
+}
@@ -0,0 +1,11 @@
+package com.java.dto;
+
+import java.util.List;
+
+import com.java.model.JobApplication;
+
+/* One page of ranked search results
+ * items are ordered best match first, totalHits counts every match
+ */
+public record ApplicationSearchResult(List<JobApplication> items, long totalHits, int page, int size) {
+}
@@ -0,0 +1,25 @@
+package com.java.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+
+/* Read-only row of a list or dashboard view
+ * built directly by the queries (select new ...), only the displayed
+ * columns are read, no entity, no user proxy and no dirty checking
+ * version is included so a client can PATCH straight from a list
+ */
+public record ApplicationSummary(
+        Long id,
+        String companyName,
+        String position,
+        ApplicationStatus status,
+        ApplicationSource source,
+        String location,
+        LocalDate appliedDate,
+        LocalDate interviewDate,
+        LocalDateTime updatedAt,
+        Long version) {
+}
@@ -0,0 +1,22 @@
+package com.java.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+
+/* Dashboard statistics for a single user
+ * built by JobApplicationService.getApplicationStats
+ *
+ * totals and breakdowns come from the stored per-user counters and the
+ * three application lists come from one combined query of summaries
+ */
+public record DashboardStats(
+        long totalApplications,
+        Map<ApplicationStatus, Long> statusBreakdown,
+        Map<ApplicationSource, Long> sourceBreakdown,
+        List<ApplicationSummary> recentApplications,
+        List<ApplicationSummary> upcomingInterviews,
+        List<ApplicationSummary> pendingOffers) {
+}
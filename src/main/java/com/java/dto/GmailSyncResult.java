@@ -0,0 +1,9 @@
+package com.java.dto;
+
+/* Outcome of one Gmail sync of a user
+ * messagesSeen -> new messages Gmail reported since the last checkpoint
+ * applicationsCreated -> how many of them were job emails we did not have yet
+ * fullScan -> true when the checkpoint was missing or expired
+ */
+public record GmailSyncResult(int messagesSeen, int applicationsCreated, boolean fullScan) {
+}
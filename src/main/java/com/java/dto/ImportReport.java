@@ -0,0 +1,32 @@
+package com.java.dto;
+
+import java.util.List;
+
+/* Outcome of a bulk import
+ * rowsRead -> records parsed from the file, imported -> rows committed
+ * chunks -> one entry per committed (or failed) chunk with the rows it rejected
+ */
+public record ImportReport(long rowsRead, long imported, List<ChunkReport> chunks) {
+
+    // valid rows that were already stored (an earlier import of the same file)
+    public long duplicates() {
+        return chunks.stream().mapToLong(ChunkReport::duplicates).sum();
+    }
+
+    public long failed() {
+        return rowsRead - imported - duplicates();
+    }
+
+    /* One chunk of the import, rows firstRow..lastRow (1 based, counted in records)
+     * duplicates are valid rows that were skipped because they are stored already
+     * committed is false when the insert of the chunk itself failed,
+     * then none of its rows were stored
+     */
+    public record ChunkReport(int chunk, long firstRow, long lastRow, int imported, int duplicates,
+            boolean committed, List<RowError> errors) {
+    }
+
+    /* A rejected row, field is null when the whole row could not be read */
+    public record RowError(long row, String field, String message) {
+    }
+}
@@ -2,8 +2,15 @@ package com.java.jobtracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+/* config, security, service, model and repository live next to this package
+ * (com.java.*), not below it, so scanning starts at com.java
+ */
+@SpringBootApplication(scanBasePackages = "com.java")
+@EntityScan("com.java.model")
+@EnableJpaRepositories("com.java.repository")
 public class JobtrackerApplication {
 
 	public static void main(String[] args) {
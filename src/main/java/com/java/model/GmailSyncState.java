@@ -0,0 +1,58 @@
+package com.java.model;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Gmail sync checkpoint of a user
+ *
+ * historyId -> Gmail mailbox history id of the last sync, the next sync only
+ * asks Gmail for what changed after it (users.history.list)
+ * Gmail forgets old history ids after about a week, then a bounded full scan
+ * is done and a fresh history id is stored
+ */
+@Entity
+@Table(name = "gmail_sync_state")
+@Data
+@NoArgsConstructor
+public class GmailSyncState {
+
+    /* one row per user, the user id is the primary key */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "history_id", precision = 20)
+    private BigInteger historyId;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    @Column(name = "last_full_scan_at")
+    private LocalDateTime lastFullScanAt;
+
+    @Column(name = "messages_imported", nullable = false)
+    private long messagesImported;
+
+    /* scheduler backoff, see GmailSyncScheduler
+     * no sync is started before nextAttemptAt, a successful sync clears both
+     */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "consecutive_failures", nullable = false)
+    private int consecutiveFailures;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public GmailSyncState(Long userId) {
+        this.userId = userId;
+    }
+}
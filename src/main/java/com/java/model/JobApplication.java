@@ -4,8 +4,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -17,19 +20,35 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+/* table and indexes are created by the Flyway migrations in resources/db/migration
+ *
+ * @DynamicUpdate -> updates only write the columns that actually changed
+ */
 @Entity
 @Table(name="job_applications")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 public class JobApplication {
 
+    /* ids come from the id_generators table in blocks of 50
+     * unlike IDENTITY this lets hibernate batch inserts,
+     * allocationSize must match the block size used in the V4 migration
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "job_application_ids")
+    @TableGenerator(name = "job_application_ids", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "job_applications", allocationSize = 50)
     private Long id;
 
     /* Lazy means data is loaded on demand 
@@ -38,6 +57,12 @@ public class JobApplication {
      */
 
      /*JoinColumn -> Specifies foreign key column */
+    /* not part of toString, equals/hashCode or json, each would load the user
+     * of every application in a list (N+1) or hit a LazyInitializationException
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -108,13 +133,21 @@ public class JobApplication {
 
     /* Automatic time management */
     @CreationTimestamp
-    @Column(name = "created_at" , updatable = false)
+    @Column(name = "created_at" , nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /* Optimistic locking, every update runs "... WHERE id = ? AND version = ?"
+     * and bumps it, a concurrent edit of the same row then fails instead of
+     * silently overwriting the other one
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     // Contructors
 
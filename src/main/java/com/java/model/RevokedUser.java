@@ -0,0 +1,32 @@
+package com.java.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* A user whose tokens issued up to revokedAt are flagged on every node, see TokenRevocationList
+ * a later revocation of the same user moves revokedAt and expiresAt forward
+ */
+@Entity
+@Table(name = "revoked_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedUser {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
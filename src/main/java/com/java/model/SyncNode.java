@@ -0,0 +1,32 @@
+package com.java.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* A running app node taking part in the gmail sync, see ShardLeaseManager
+ * live nodes are the ones with a recent heartbeat, the shards are divided among them
+ */
+@Entity
+@Table(name = "sync_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,38 @@
+package com.java.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Lease of one user shard (users with MOD(id, shard count) = shardId)
+ * owner is the node syncing the shard until leaseUntil, an expired or
+ * released lease (owner null) can be claimed by any node
+ */
+@Entity
+@Table(name = "sync_shard_leases")
+@Data
+@NoArgsConstructor
+public class SyncShardLease {
+
+    @Id
+    @Column(name = "shard_id")
+    private Integer shardId;
+
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public SyncShardLease(Integer shardId) {
+        this.shardId = shardId;
+    }
+}
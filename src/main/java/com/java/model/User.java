@@ -4,9 +4,14 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -21,10 +26,18 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+/* table and indexes are created by the Flyway migrations in resources/db/migration */
 /* Ensures email Uniqueness */
+/* Cached in the "users" second-level cache region (see hibernate-cache.conf),
+ * READ_WRITE keeps the cached row in sync when hibernate updates the user
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @Table(name = "users", uniqueConstraints = {
@@ -85,8 +98,13 @@ public class User {
      * user should be the name of the field in the child entity
      * 
      * cascade -> all operations done on user will cascade to its child entities
-     * 
+     *
+     * left out of toString, equals/hashCode and json, any of them would load
+     * every application of the user (or fail outside of a session)
      */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<JobApplication> jobApplication = new ArrayList<>();
 
@@ -0,0 +1,61 @@
+package com.java.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* One pre-computed application counter of a user
+ *
+ * TOTAL  / ALL      -> all applications of the user
+ * STATUS / APPLIED  -> applications with status APPLIED, one row per status
+ * SOURCE / GMAIL    -> applications from GMAIL, one row per source
+ *
+ * rows are changed in the same transaction as the applications themselves
+ * (see ApplicationStatsService), table created by the V5 migration
+ */
+@Entity
+@Table(name = "user_application_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserApplicationStat {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "app_count", nullable = false)
+    private long count;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "category")
+        private Category category;
+
+        // status or source enum name, "ALL" for the total
+        @Column(name = "name")
+        private String name;
+    }
+
+    public enum Category {
+        TOTAL,
+        STATUS,
+        SOURCE
+    }
+}
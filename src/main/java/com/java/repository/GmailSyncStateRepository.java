@@ -0,0 +1,12 @@
+package com.java.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.java.model.GmailSyncState;
+
+/* Gmail sync checkpoints, the id is the user id */
+@Repository
+public interface GmailSyncStateRepository extends JpaRepository<GmailSyncState, Long> {
+
+}
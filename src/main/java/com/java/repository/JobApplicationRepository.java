@@ -1,19 +1,30 @@
 package com.java.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.java.dto.ApplicationSummary;
 import com.java.model.JobApplication;
 import com.java.model.User;
 import com.java.model.JobApplication.ApplicationSource;
 import com.java.model.JobApplication.ApplicationStatus;
 
+import jakarta.persistence.QueryHint;
+
 /* Spring data Jpa automatically
  * creates queries based on method name
  * 
@@ -23,18 +34,52 @@ import com.java.model.JobApplication.ApplicationStatus;
 @Repository
 public interface JobApplicationRepository extends JpaRepository<JobApplication, Long>{
 
+    // select list of the ApplicationSummary projection used by list and dashboard views
+    String SUMMARY = "SELECT new com.java.dto.ApplicationSummary(ja.id, ja.companyName, ja.position, ja.status, "
+            + "ja.source, ja.location, ja.appliedDate, ja.interviewDate, ja.updatedAt, ja.version) "
+            + "FROM JobApplication ja ";
+
     // Get all applications for a user, ordered by creation data
-    List<JobApplication> findByUserOrderedByCreatedAtDesc(User user);
+    List<JobApplication> findByUserOrderByCreatedAtDescIdDesc(User user);
+
+    /* Keyset (seek) pagination on (createdAt, id)
+     * the pageable only carries the page size so the limit is applied in SQL,
+     * a slice fetches one extra row to know if there is a next page
+     *
+     * first page starts from the newest application
+     */
+    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user ORDER BY ja.createdAt DESC, ja.id DESC")
+    Slice<JobApplication> findFirstPageByUser(@Param("user") User user, Pageable pageable);
+
+    // newest applications as summaries, the pageable carries the limit
+    @Query(SUMMARY + "WHERE ja.user = :user ORDER BY ja.createdAt DESC, ja.id DESC")
+    List<ApplicationSummary> findRecentSummaries(@Param("user") User user, Pageable pageable);
+
+    // next pages continue right after the last (createdAt, id) of the previous page
+    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND (ja.createdAt < :createdAt OR (ja.createdAt = :createdAt AND ja.id < :id)) ORDER BY ja.createdAt DESC, ja.id DESC")
+    Slice<JobApplication> findPageAfterCursor(@Param("user") User user, @Param("createdAt") LocalDateTime createdAt,
+    @Param("id") Long id, Pageable pageable);
+
+    /* Stream every application of a user for exports
+     * rows are pulled from the cursor in fetch size batches instead of one big list
+     * must be consumed inside a transaction and closed after use
+     * (on MySQL add useCursorFetch=true to the jdbc url so the fetch size is honoured)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user ORDER BY ja.createdAt DESC, ja.id DESC")
+    Stream<JobApplication> streamByUser(@Param("user") User user);
 
     // Get application by status
-    List<JobApplication> findByUserAndStatus(User user, ApplicationStatus status);
+    @Query(SUMMARY + "WHERE ja.user = :user AND ja.status = :status")
+    List<ApplicationSummary> findByUserAndStatus(@Param("user") User user, @Param("status") ApplicationStatus status);
 
     // Get application by source
-    List<JobApplication> findByUserAndSource(User user, ApplicationSource source);
+    @Query(SUMMARY + "WHERE ja.user = :user AND ja.source = :source")
+    List<ApplicationSummary> findByUserAndSource(@Param("user") User user, @Param("source") ApplicationSource source);
 
     // Get application in date range 
-    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND ja.appliedDate BETWEEN :startDate AND :endDate ORDER BY ja.appliedDate DESC")
-    List<JobApplication> findByUserAndAppliedDate(@Param("user") User user, @Param("startDate") LocalDate startDate,
+    @Query(SUMMARY + "WHERE ja.user = :user AND ja.appliedDate BETWEEN :startDate AND :endDate ORDER BY ja.appliedDate DESC")
+    List<ApplicationSummary> findByUserAndAppliedDate(@Param("user") User user, @Param("startDate") LocalDate startDate,
     @Param("endDate") LocalDate endDate);
 
     // Count application for user 
@@ -45,17 +90,60 @@ public interface JobApplicationRepository extends JpaRepository<JobApplication,
     @Query("SELECT COUNT(ja) FROM JobApplication ja WHERE ja.user = :user And ja.status = :status")
     Long countApplicationByStatus(@Param("user") User user, @Param("status") ApplicationStatus status);
 
-    // Search By company name
-    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user And LOWER(ja.company) AND LOWER(CONCAT('%', :company, '%'))")
+    /* Search By company name
+     * LIKE '%q%' can not use an index, searches go through ApplicationSearchIndex,
+     * kept as the plain SQL fallback
+     */
+    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND LOWER(ja.companyName) LIKE LOWER(CONCAT('%', :company, '%'))")
     List<JobApplication> findByUserCompanyName(@Param("user") User user, @Param("company") String company);
 
     // Search job application by position
-    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND LOWER(ja.position) AND LIKE LOWER(CONCAT('%', position, '%'))")
+    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND LOWER(ja.position) LIKE LOWER(CONCAT('%', :position, '%'))")
     List<JobApplication> findByUserPosition(@Param("user") User user, @Param("position") String position);
 
 
+    // one application, only when it belongs to the user (ownership checked in SQL)
+    Optional<JobApplication> findByIdAndUserId(Long id, Long userId);
+
+    /* Delete an application of the user in one statement, nothing is loaded
+     * returns the number of deleted rows, 0 when the id does not exist or
+     * belongs to someone else
+     */
+    @Modifying
+    @Query("DELETE FROM JobApplication ja WHERE ja.id = :id AND ja.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // same for a list of ids, ids of other users are ignored
+    @Modifying
+    @Query("DELETE FROM JobApplication ja WHERE ja.id IN :ids AND ja.user.id = :userId")
+    int deleteByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // status and source counts of the given applications of a user, read before they are deleted
+    @Query("SELECT ja.status, ja.source, COUNT(ja) FROM JobApplication ja WHERE ja.id IN :ids AND ja.user.id = :userId GROUP BY ja.status, ja.source")
+    List<Object[]> countByStatusAndSourceForIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
     // find by gmail message ID
-    Optional<JobApplication> findByUserAndMessageID(User user, String gmailMessageId);
+    Optional<JobApplication> findByUserAndGmailMessageId(User user, String gmailMessageId);
+
+    /* Which of these gmail message ids are already imported for the user
+     * one IN query for a whole batch instead of one lookup per message,
+     * callers keep the collection at a size the database accepts (about 1000)
+     */
+    @Query("SELECT ja.gmailMessageId FROM JobApplication ja WHERE ja.user.id = :userId AND ja.gmailMessageId IN :messageIds")
+    List<String> findKnownGmailMessageIds(@Param("userId") Long userId, @Param("messageIds") Collection<String> messageIds);
+
+    // company, position and applied date of a user's applications on these dates, the natural key of file imports
+    @Query("SELECT ja.companyName, ja.position, ja.appliedDate FROM JobApplication ja WHERE ja.user.id = :userId AND ja.appliedDate IN :dates")
+    List<Object[]> findImportKeys(@Param("userId") Long userId, @Param("dates") Collection<LocalDate> dates);
+
+    // company and position of a user's applications whose applied date is the day they were created,
+    // what an imported row without a date was stored as
+    @Query("SELECT ja.companyName, ja.position FROM JobApplication ja WHERE ja.user.id = :userId AND ja.companyName IN :companies AND ja.appliedDate = CAST(ja.createdAt AS LocalDate)")
+    List<Object[]> findUndatedImportKeys(@Param("userId") Long userId, @Param("companies") Collection<String> companies);
+
+    // every imported gmail message id of a user (used to build the dedupe filter)
+    @Query("SELECT ja.gmailMessageId FROM JobApplication ja WHERE ja.user.id = :userId AND ja.gmailMessageId IS NOT NULL")
+    List<String> findAllGmailMessageIds(@Param("userId") Long userId);
 
     /* Get stats by status means how may application are appplied , how many get offer or interview etc */
     @Query("SELECT DISTINCT ja.status , COUNT(ja) FROM JobApplication ja WHERE ja.user = :user GROUP BY ja.status")
@@ -67,14 +155,36 @@ public interface JobApplicationRepository extends JpaRepository<JobApplication,
     List<Object[]> getSourceStatsByUser(@Param("user") User user);
 
 
+    /* Get status and source counts together in a single grouped query
+     * each row is [status, source, count], the dashboard sums them up
+     * to get the total, the status breakdown and the source breakdown
+     */
+    @Query("SELECT ja.status, ja.source, COUNT(ja) FROM JobApplication ja WHERE ja.user = :user GROUP BY ja.status, ja.source")
+    List<Object[]> countByStatusAndSource(@Param("user") User user);
+
+    // same grouped count by user id, used to check the stored counters
+    @Query("SELECT ja.status, ja.source, COUNT(ja) FROM JobApplication ja WHERE ja.user.id = :userId GROUP BY ja.status, ja.source")
+    List<Object[]> countByStatusAndSourceForUserId(@Param("userId") Long userId);
+
+
+    /* Get every application the dashboard lists in one query
+     * recent applications (applied between startDate and today),
+     * upcoming interviews (interview on or after today) and pending offers
+     * the service splits the result into the three lists
+     */
+    @Query(SUMMARY + "WHERE ja.user = :user AND ((ja.appliedDate BETWEEN :startDate AND :today) OR ja.interviewDate >= :today OR ja.status = :offerStatus)")
+    List<ApplicationSummary> findDashboardApplications(@Param("user") User user, @Param("startDate") LocalDate startDate,
+    @Param("today") LocalDate today, @Param("offerStatus") ApplicationStatus offerStatus);
+
+
     // Get upcoming interviews
-    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND ja.interviewDate IS NOT NULL AND ja.interviewDate >= CURRENT_DATE ORDER BY ja.interviewDate ASC")
-    List<JobApplication> findUpcomingInterviewByUser(@Param("user") User user);
+    @Query(SUMMARY + "WHERE ja.user = :user AND ja.interviewDate IS NOT NULL AND ja.interviewDate >= CURRENT_DATE ORDER BY ja.interviewDate ASC")
+    List<ApplicationSummary> findUpcomingInterviewByUser(@Param("user") User user);
 
 
     // Get Pending offers 
-    @Query("SELECT ja FROM JobApplication ja WHERE ja.user = :user AND ja.status IN('OFFER_RECEIVED') ORDER BY ja.updatedAt DESC")
-    List<JobApplication> findPendingOffersByUser(@Param("user") User user);
+    @Query(SUMMARY + "WHERE ja.user = :user AND ja.status = :offerStatus ORDER BY ja.updatedAt DESC")
+    List<ApplicationSummary> findPendingOffersByUser(@Param("user") User user, @Param("offerStatus") ApplicationStatus offerStatus);
 
 
 
@@ -0,0 +1,34 @@
+package com.java.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.java.model.RevokedUser;
+
+/* Users whose tokens are flagged, see TokenRevocationList */
+@Repository
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, Long> {
+
+    // empty when the user was never revoked or the revocation has expired
+    @Query("SELECT u.revokedAt FROM RevokedUser u WHERE u.userId = :userId AND u.expiresAt > :now")
+    Optional<LocalDateTime> findRevokedAt(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // returns 0 when the user has no row yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE RevokedUser u SET u.revokedAt = :revokedAt, u.expiresAt = :expiresAt WHERE u.userId = :userId")
+    int revokeAgain(@Param("userId") Long userId, @Param("revokedAt") LocalDateTime revokedAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedUser u WHERE u.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,35 @@
+package com.java.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.java.model.SyncNode;
+
+/* Nodes taking part in the gmail sync, see ShardLeaseManager
+ * the updates run in their own short transaction, a heartbeat never holds locks
+ */
+@Repository
+public interface SyncNodeRepository extends JpaRepository<SyncNode, String> {
+
+    // returns 0 when the node has no row yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncNode n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    // nodes that heartbeated since the given time, always includes the caller after its own heartbeat
+    @Query("SELECT COUNT(n) FROM SyncNode n WHERE n.heartbeatAt >= :since")
+    long countAliveSince(@Param("since") LocalDateTime since);
+
+    // rows of nodes that are long gone
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SyncNode n WHERE n.heartbeatAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
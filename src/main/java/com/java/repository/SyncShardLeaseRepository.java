@@ -0,0 +1,59 @@
+package com.java.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.java.model.SyncShardLease;
+
+/* Shard leases of the gmail sync, see ShardLeaseManager
+ *
+ * every change is a conditional update on one or a few rows, the condition
+ * decides who wins when two nodes go for the same shard (the loser updates 0 rows),
+ * so no row is ever read and written back
+ */
+@Repository
+public interface SyncShardLeaseRepository extends JpaRepository<SyncShardLease, Integer> {
+
+    // shards the node holds an unexpired lease on
+    @Query("SELECT l.shardId FROM SyncShardLease l WHERE l.owner = :owner AND l.leaseUntil >= :now ORDER BY l.shardId")
+    List<Integer> findOwnedShardIds(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // shards nobody holds, released or expired
+    @Query("SELECT l.shardId FROM SyncShardLease l WHERE l.owner IS NULL OR l.leaseUntil < :now ORDER BY l.shardId")
+    List<Integer> findClaimableShardIds(@Param("now") LocalDateTime now);
+
+    // number of unexpired leases of every node holding any
+    @Query("SELECT COUNT(l) FROM SyncShardLease l WHERE l.owner IS NOT NULL AND l.leaseUntil >= :now AND l.shardId < :shards GROUP BY l.owner")
+    List<Long> countLeasesPerOwner(@Param("now") LocalDateTime now, @Param("shards") int shards);
+
+    // extend every unexpired lease of the node, an expired lease may already belong to someone else
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncShardLease l SET l.leaseUntil = :until, l.heartbeatAt = :now WHERE l.owner = :owner AND l.leaseUntil >= :now")
+    int renew(@Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // take a free or expired shard, returns 0 when another node got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncShardLease l SET l.owner = :owner, l.leaseUntil = :until, l.heartbeatAt = :now WHERE l.shardId = :shardId AND (l.owner IS NULL OR l.leaseUntil < :now)")
+    int claim(@Param("shardId") Integer shardId, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until);
+
+    // give a shard back so another node can claim it right away
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncShardLease l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.shardId = :shardId AND l.owner = :owner")
+    int release(@Param("shardId") Integer shardId, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SyncShardLease l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,37 @@
+package com.java.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.java.model.UserApplicationStat;
+import com.java.model.UserApplicationStat.Category;
+
+import jakarta.persistence.LockModeType;
+
+/* Per-user application counters, see ApplicationStatsService */
+@Repository
+public interface UserApplicationStatRepository extends JpaRepository<UserApplicationStat, UserApplicationStat.Key> {
+
+    // every counter of a user, a primary key range read
+    @Query("SELECT s FROM UserApplicationStat s WHERE s.id.userId = :userId")
+    List<UserApplicationStat> findByUserId(@Param("userId") Long userId);
+
+    // same rows locked, used by the reconciliation so writers wait for it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserApplicationStat s WHERE s.id.userId = :userId")
+    List<UserApplicationStat> lockByUserId(@Param("userId") Long userId);
+
+    /* Add delta to one counter in the database (count = count + delta)
+     * returns 0 when the counter row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE UserApplicationStat s SET s.count = s.count + :delta WHERE s.id.userId = :userId AND s.id.category = :category AND s.id.name = :name")
+    int increment(@Param("userId") Long userId, @Param("category") Category category, @Param("name") String name,
+            @Param("delta") long delta);
+}
@@ -1,15 +1,21 @@
 package com.java.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.java.model.User;
 
+import jakarta.persistence.QueryHint;
+
 /* Repositories handles all database operations using 
  * Spring Data JPA
  */
@@ -18,10 +24,23 @@ import com.java.model.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // query cache region of the email lookups
+    String USER_QUERIES_REGION = "user-queries";
+
+    /* The email lookups run on every login and registration
+     * their results go to the query cache ("user-queries" region) and the
+     * users themselves come from the second-level cache, any write to the
+     * users table invalidates the cached results
+     */
+
     // find user by email
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = USER_QUERIES_REGION) })
     Optional<User> findByEmail(String email);
 
     // check if email already exists or not
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = USER_QUERIES_REGION) })
     Boolean existsByEmail(String email);
 
     // find all active users 
@@ -36,8 +55,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findAllUsersWithGmailConnected();
 
     // find active user connected by Gmail
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = USER_QUERIES_REGION) })
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isActive = true")
     Optional<User> findByEmailActive(@Param("email") String email);
+
+    // active users with gmail connected in pages (keyset on id), for the sync scheduler
+    @Query("SELECT u FROM User u WHERE u.gmailConnected = true AND u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<User> findGmailConnectedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // same, limited to the users of the given shards (MOD(id, shardCount)), see ShardLeaseManager
+    @Query("SELECT u FROM User u WHERE u.gmailConnected = true AND u.isActive = true AND MOD(u.id, :shardCount) IN :shards AND u.id > :afterId ORDER BY u.id")
+    List<User> findGmailConnectedInShardsAfter(@Param("afterId") Long afterId, @Param("shardCount") int shardCount,
+            @Param("shards") Collection<Integer> shards, Pageable pageable);
+
+    // user ids in pages (keyset on id), for jobs that visit every user
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
     
     /* jpql queries is used when derived queries are too limited
      * and when you perform complex queries
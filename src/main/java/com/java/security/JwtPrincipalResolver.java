@@ -0,0 +1,51 @@
+package com.java.security;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.java.repository.UserRepository;
+
+import io.jsonwebtoken.Claims;
+
+/* Turns the bearer token of a request into the UserPrincipal, used by the authentication filter
+ *
+ * stateless principal mode (jwt.stateless-principal=true) -> the principal
+ *   is rebuilt from the signed claims, no database access per request
+ * otherwise, for tokens without the claims (issued before the mode was on)
+ *   and for tokens TokenRevocationList flags -> the user is loaded by email,
+ *   inactive users get no principal
+ *
+ * revoked tokens get no principal in both modes, operations that must see the
+ * current account state (gmail connection, deactivation) still load the
+ * user through AuthService.getCurrentUser
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public Optional<UserPrincipal> resolve(String token) {
+
+        Optional<Claims> parsed = jwtUtils.parseClaims(token);
+        if (parsed.isEmpty() || revocationList.isRevoked(parsed.get())) {
+            return Optional.empty();
+        }
+
+        Claims claims = parsed.get();
+        if (jwtUtils.isStatelessPrincipal() && claims.get(JwtUtils.CLAIM_USER_ID) != null
+                && !revocationList.isFlagged(claims)) {
+            return Optional.of(UserPrincipal.fromClaims(claims));
+        }
+
+        return userRepository.findByEmailActive(claims.getSubject()).map(UserPrincipal::create);
+    }
+}
@@ -1,21 +1,40 @@
 package com.java.security;
 
 import java.security.Key;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.java.config.MetricsConfig;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 /* Utility class for handling jwt (Json web token ) 
  * 
@@ -32,6 +51,12 @@ public class JwtUtils {
 
    private static final Logger logger =  LoggerFactory.getLogger(JwtUtils.class);
 
+    // claims of the stateless principal, see UserPrincipal.fromClaims
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_FIRST_NAME = "given_name";
+    public static final String CLAIM_LAST_NAME = "family_name";
+    public static final String CLAIM_ROLES = "roles";
+
     /* jwtSecret -> secret key for 
      * signing JWTS(Should be long and Base 64-encoded)
      */
@@ -41,12 +66,126 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirations;
 
-    /*Secret key method
-     * converts the base64-encoded secret(jwt.secret) into a key object
-     * used for signing and validating tokens
+    /* key id (kid header) of jwt.secret
+     * new tokens are signed with jwt.secret and carry this id
+     */
+    @Value("${jwt.key-id:primary}")
+    private String jwtKeyId;
+
+    /* older secrets that are still accepted while their tokens expire
+     * format -> kid:base64secret,kid2:base64secret2
+     * to rotate: move the current secret here under its kid, then set a new
+     * jwt.secret and jwt.key-id
+     */
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+
+    /* stateless principal mode
+     * tokens also carry the user id, names and roles so JwtPrincipalResolver
+     * can build the UserPrincipal without loading the user, see there
+     */
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    /* counts every token check (jwt.validations)
+     * result=valid, or result=invalid with the exception type
+     * optional so tokens also work without actuator metrics
+     */
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // signing key, decoded once at startup instead of on every call
+    private Key signingKey;
+
+    // every key that can verify a token, by key id
+    private Map<String, Key> verificationKeys;
+
+    // parsers are immutable and thread safe so one is shared by all requests
+    private JwtParser jwtParser;
+
+    // one parser per verification key (current key first), for tokens without a kid
+    private List<JwtParser> keyParsers;
+
+    /*Secret keys
+     * converts the base64-encoded secrets into key objects once
+     * and builds the shared parser which picks the key from the kid header
+     */
+    @PostConstruct
+    void initKeys() {
+        Map<String, Key> keys = new HashMap<>();
+        signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(jwtSecret));
+        keys.put(jwtKeyId, signingKey);
+
+        if (previousSecrets != null && !previousSecrets.isBlank()) {
+            for (String entry : previousSecrets.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2 || parts[0].isBlank()) {
+                    throw new IllegalStateException("jwt.previous-secrets entries must look like kid:base64secret");
+                }
+                keys.putIfAbsent(parts[0].trim(), Keys.hmacShaKeyFor(Base64.getDecoder().decode(parts[1].trim())));
+            }
+        }
+
+        verificationKeys = Map.copyOf(keys);
+
+        List<JwtParser> parsers = new ArrayList<>();
+        parsers.add(Jwts.parserBuilder().setSigningKey(signingKey).build());
+        keys.forEach((keyId, key) -> {
+            if (!keyId.equals(jwtKeyId)) {
+                parsers.add(Jwts.parserBuilder().setSigningKey(key).build());
+            }
+        });
+        keyParsers = List.copyOf(parsers);
+
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    // tokens without a kid are handed to parse, which tries every key
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            throw new MissingKeyIdException();
+        }
+
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown jwt key id: " + keyId);
+        }
+        return key;
+    }
+
+    /* Verify a token with the key of its kid header
+     * tokens issued before key ids were added have no kid, they may be signed with
+     * jwt.secret or with one of the previous secrets (the secret of their time),
+     * so every key is tried, a signature mismatch moves on to the next one
      */
-    private Key key(){
-        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(jwtSecret));
+    private Jws<Claims> parse(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token);
+        } catch (MissingKeyIdException e) {
+            SignatureException mismatch = null;
+            for (JwtParser parser : keyParsers) {
+                try {
+                    return parser.parseClaimsJws(token);
+                } catch (SignatureException wrongKey) {
+                    mismatch = wrongKey;
+                }
+            }
+            throw mismatch;
+        }
+    }
+
+    // thrown by the key resolver, never leaves parse
+    private static class MissingKeyIdException extends JwtException {
+        MissingKeyIdException() {
+            super("jwt has no key id");
+        }
     }
 
     /* used for logged-in user (authentication)
@@ -62,15 +201,30 @@ public class JwtUtils {
 
       UserPrincipal userPrincipal =  (UserPrincipal) authentication.getPrincipal();
 
-      return Jwts.builder()
-      .setSubject(userPrincipal.getEmail())
-      .setIssuedAt(new Date())
-      .setExpiration(new Date(new Date().getTime() + jwtExpirations))
-      .signWith(key(), SignatureAlgorithm.HS256)
-      .compact();
+      return generateTokenFromPrincipal(userPrincipal);
         
     }
 
+    /* Token of a logged in user
+     * in stateless principal mode it also carries id, names and roles as claims,
+     * otherwise it is the same token as generateTokenFromEmail
+     */
+    public String generateTokenFromPrincipal(UserPrincipal userPrincipal){
+
+        JwtBuilder builder = tokenBuilder(userPrincipal.getEmail());
+
+        if (statelessPrincipal) {
+            builder.claim(CLAIM_USER_ID, userPrincipal.getId())
+            .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+            .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+            .claim(CLAIM_ROLES, userPrincipal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+        }
+
+        return builder.compact();
+    }
+
     /* Generate token from email
      * used when you want to reset password
      * don't want to password to enter 
@@ -79,12 +233,72 @@ public class JwtUtils {
 
     public String generateTokenFromEmail(String email){
 
+        return tokenBuilder(email).compact();
+    }
+
+    /* subject, issued at, expiration and a random token id (jti),
+     * the id lets TokenRevocationList revoke a single token
+     */
+    private JwtBuilder tokenBuilder(String email){
+
+        Date now = new Date();
+
         return Jwts.builder()
+        .setHeaderParam(JwsHeader.KEY_ID, jwtKeyId)
+        .setId(UUID.randomUUID().toString())
         .setSubject(email)
-        .setIssuedAt(new Date())
-        .setExpiration(new Date(new Date().getTime() + jwtExpirations))
-        .signWith(key(), SignatureAlgorithm.HS256)
-        .compact();
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtExpirations))
+        .signWith(signingKey, SignatureAlgorithm.HS256);
+    }
+
+    public boolean isStatelessPrincipal(){
+        return statelessPrincipal;
+    }
+
+    // lifetime of new tokens, revocations only have to be kept this long
+    public long getExpirationMillis(){
+        return jwtExpirations;
+    }
+
+    /* Parse and validate a token in one go
+     * returns the claims when the token is valid, empty otherwise
+     *
+     * authentication filters should call this once per request and read
+     * the email from claims.getSubject() instead of calling
+     * validateToken and extractEmailFromToken which both parse the token
+     */
+    public Optional<Claims> parseClaims(String authToken){
+
+        try {
+            Claims claims = parse(authToken).getBody();
+            countValidation("valid", "none");
+            return Optional.of(claims);
+
+        }catch (ExpiredJwtException e) {
+
+            logger.error("Expired jwt token: {}", e.getMessage());
+            countValidation("invalid", e.getClass().getSimpleName());
+
+        }catch (JwtException e) {
+
+            // malformed, unsupported, bad signature, not yet valid (PrematureJwtException), ...
+            logger.error("Invalid jwt token: {}", e.getMessage());
+            countValidation("invalid", e.getClass().getSimpleName());
+
+        }catch(IllegalArgumentException e){
+            
+            logger.error("Token string field is empty: {}", e.getMessage());
+            countValidation("invalid", e.getClass().getSimpleName());
+        }
+
+        return Optional.empty();
+    }
+
+    private void countValidation(String result, String exception){
+        if (meterRegistry != null) {
+            meterRegistry.counter(MetricsConfig.JWT_VALIDATIONS, "result", result, "exception", exception).increment();
+        }
     }
 
     /*USED in authentication filters 
@@ -98,10 +312,7 @@ public class JwtUtils {
      */
     public String extractEmailFromToken(String token){
 
-        return Jwts.parserBuilder() // parser is used to validate and decode JWT tokens
-        .setSigningKey(key())  // sets the secret key for verifying the jwt signature
-        .build() // build the configured jwt parser
-        .parseClaimsJws(token) // validate the token 
+        return parse(token) // validate the token with the shared parser
         .getBody()  // retrieves claims payload
         .getSubject(); // returns the value of subject field from claims
     }
@@ -110,29 +321,7 @@ public class JwtUtils {
     /* Method to validate the token */
     public boolean validateToken(String authToken){
 
-        try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
-
-        } catch (MalformedJwtException e) {
-
-            logger.error("Invalid jwt token: {}", e.getMessage());
-            
-        }catch (ExpiredJwtException e) {
-
-            logger.error("Expired jwt token: {}", e.getMessage());
-            
-        }
-        catch (UnsupportedJwtException e) {
-
-            logger.error("Invalid jwt token: {}", e.getMessage());
-            
-        }catch(IllegalArgumentException e){
-            
-            logger.error("Token string field is empty: {}", e.getMessage());
-        }
-
-        return false;
+        return parseClaims(authToken).isPresent();
     }
 
 
@@ -0,0 +1,140 @@
+package com.java.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.java.model.RevokedToken;
+import com.java.model.RevokedUser;
+import com.java.repository.RevokedTokenRepository;
+import com.java.repository.RevokedUserRepository;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+
+/* Tokens that can no longer be trusted on their claims alone
+ *
+ * revokeToken -> that one token is rejected (logout)
+ * revokeUser  -> every token of the user issued up to now is flagged, a
+ *                flagged token is checked against the database again
+ *                (deactivated account, changed names or roles)
+ *
+ * revocations are stored in revoked_tokens / revoked_users (V11) so every
+ * node sees them, lookups go through a small cache per node that keeps
+ * answers (also "not revoked") for jwt.revocation.cache-seconds, a
+ * revocation made on another node is seen at most that late, the node that
+ * made it sees it right away
+ *
+ * rows are only kept for the token lifetime, after that the tokens they
+ * are about have expired anyway, so the tables stay small
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private RevokedUserRepository revokedUserRepository;
+
+    @Value("${jwt.revocation.cache-seconds:10}")
+    private long cacheSeconds = 10;
+
+    @Value("${jwt.revocation.cache-max-entries:100000}")
+    private long cacheMaxEntries = 100_000;
+
+    // token id (jti) -> revoked or not
+    private Cache<String, Boolean> revokedTokens;
+
+    // user id -> tokens issued at or before this instant are flagged, empty when not revoked
+    private Cache<Long, Optional<Instant>> revokedUsers;
+
+    @PostConstruct
+    void initCaches() {
+        Duration ttl = Duration.ofSeconds(cacheSeconds);
+        revokedTokens = Caffeine.newBuilder().maximumSize(cacheMaxEntries).expireAfterWrite(ttl).build();
+        revokedUsers = Caffeine.newBuilder().maximumSize(cacheMaxEntries).expireAfterWrite(ttl).build();
+    }
+
+    public void revokeToken(String tokenId) {
+        if (tokenId == null) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt()));
+        revokedTokens.put(tokenId, Boolean.TRUE);
+    }
+
+    public void revokeUser(Long userId) {
+        Instant now = Instant.now();
+        LocalDateTime revokedAt = toLocal(now);
+        if (revokedUserRepository.revokeAgain(userId, revokedAt, expiresAt()) == 0) {
+            revokedUserRepository.save(new RevokedUser(userId, revokedAt, expiresAt()));
+        }
+        revokedUsers.put(userId, Optional.of(now));
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        return tokenId != null && revokedTokens.get(tokenId,
+                id -> revokedTokenRepository.isRevoked(id, LocalDateTime.now()));
+    }
+
+    // iat has second precision, a token from the same second as the revocation is flagged too
+    public boolean isFlagged(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            return false;
+        }
+
+        Optional<Instant> revokedAt = revokedUsers.get(userId, id -> revokedUserRepository
+                .findRevokedAt(id, LocalDateTime.now())
+                .map(TokenRevocationList::toInstant));
+        Date issuedAt = claims.getIssuedAt();
+        return revokedAt.isPresent() && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt.get()));
+    }
+
+    // rows of tokens that have expired by now, every node purges, the deletes are idempotent
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int purged = revokedTokenRepository.deleteExpired(now) + revokedUserRepository.deleteExpired(now);
+            if (purged > 0) {
+                logger.debug("Purged {} expired token revocations", purged);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not purge expired token revocations: {}", e.getMessage());
+        }
+    }
+
+    // a token issued right now is valid until then, so is every token the revocation is about
+    private LocalDateTime expiresAt() {
+        return LocalDateTime.now().plus(Duration.ofMillis(jwtUtils.getExpirationMillis()));
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -2,6 +2,7 @@ package com.java.security;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -10,6 +11,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Objects;
 import com.java.model.User;
 
+import io.jsonwebtoken.Claims;
+
 /* spring security requires a userDetails object to represent 
  * an authenticated user 
  * 
@@ -56,6 +59,23 @@ public class UserPrincipal implements UserDetails {
                 user.getEmail(), user.getPassword(), user.getFirstName(), user.getLastName(), authorities);
     }
 
+    /*
+     * Rebuild the principal from the claims of a stateless token
+     * (JwtUtils.generateTokenFromPrincipal), no database access
+     * there is no password, the principal only stands for an already
+     * authenticated request
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        List<?> roles = claims.get(JwtUtils.CLAIM_ROLES, List.class);
+        Collection<GrantedAuthority> authorities = roles == null
+                ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                : roles.stream().map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString())).toList();
+
+        return new UserPrincipal(claims.get(JwtUtils.CLAIM_USER_ID, Long.class), claims.getSubject(), null,
+                claims.get(JwtUtils.CLAIM_FIRST_NAME, String.class), claims.get(JwtUtils.CLAIM_LAST_NAME, String.class),
+                authorities);
+    }
+
     public Long getId() {
         return id;
     }
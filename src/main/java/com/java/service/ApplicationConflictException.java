@@ -0,0 +1,21 @@
+package com.java.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/* The application was changed by someone else after the client read it
+ * (stale version), the client has to reload and apply its change again
+ * answered with 409 Conflict
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ApplicationConflictException extends RuntimeException {
+
+    public ApplicationConflictException(Long id, Long expectedVersion, Long currentVersion) {
+        super("Application " + id + " was modified concurrently (expected version " + expectedVersion
+                + ", current version " + currentVersion + ")");
+    }
+
+    public ApplicationConflictException(Long id, Throwable cause) {
+        super("Application " + id + " was modified concurrently", cause);
+    }
+}
@@ -0,0 +1,409 @@
+package com.java.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.java.model.JobApplication;
+import com.java.model.User;
+import com.java.repository.JobApplicationRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/* In-memory inverted index used to search a user's applications
+ *
+ * replaces the LOWER(..) LIKE '%q%' queries which can never use an index
+ * every user gets its own index (term -> application id -> weight) built
+ * from companyName, position, location, notes and contactPerson
+ *
+ * a user's index is built on the first search by streaming their applications,
+ * published once it is complete and kept in sync by JobApplicationService,
+ * changes are applied after their transaction commits (a rolled back write never
+ * shows up in search)
+ *
+ * the indexes are a bounded caffeine cache, idle users are dropped after
+ * search.index.expire-after-access-minutes. every node only sees its own writes,
+ * an index is also rebuilt search.index.max-age-minutes after it was built so
+ * changes made on other nodes show up within that time
+ *
+ * matching per query term:
+ * exact term  -> full field weight
+ * prefix      -> "goo" matches "google"
+ * fuzzy       -> one typo (two for long terms) "gogle" matches "google"
+ * every query term has to match, results are ranked by the summed score
+ */
+@Component
+public class ApplicationSearchIndex {
+
+    // how much a hit in each field counts towards the score
+    private static final float COMPANY_WEIGHT = 3.0f;
+    private static final float POSITION_WEIGHT = 3.0f;
+    private static final float CONTACT_WEIGHT = 2.0f;
+    private static final float LOCATION_WEIGHT = 1.5f;
+    private static final float NOTES_WEIGHT = 1.0f;
+
+    // a prefix or fuzzy hit is worth less than an exact term
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.4f;
+
+    // terms shorter than this are only matched exactly or by prefix
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    @Value("${search.index.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${search.index.expire-after-access-minutes:30}")
+    private long expireAfterAccessMinutes;
+
+    @Value("${search.index.max-age-minutes:5}")
+    private long maxAgeMinutes;
+
+    // user id -> that user's complete index
+    private Cache<Long, UserIndex> indexes;
+
+    // user id -> index being built, collects the changes committed meanwhile
+    private final Map<Long, Build> building = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void initCache() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .expireAfterWrite(Duration.ofMinutes(maxAgeMinutes))
+                .build();
+    }
+
+    public boolean isLoaded(Long userId) {
+        return indexes.getIfPresent(userId) != null;
+    }
+
+    /* Build the index of a user by streaming all their applications
+     * the index is only published once it is complete, changes that commit
+     * while it is built are collected and replayed on it before publishing
+     *
+     * runs in its own transaction so its snapshot starts after the build is
+     * registered, a concurrent load of the same user waits for this one
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void load(User user) {
+        Long userId = user.getId();
+        Build build = new Build();
+        Build running = building.putIfAbsent(userId, build);
+        if (running != null) {
+            running.done.join();
+            return;
+        }
+
+        try {
+            if (!isLoaded(userId)) {
+                UserIndex index = new UserIndex();
+                try (Stream<JobApplication> applications = jobApplicationRepository.streamByUser(user)) {
+                    applications.forEach(index::add);
+                }
+                build.publish(userId, index);
+            }
+            build.done.complete(null);
+        } catch (RuntimeException e) {
+            // nothing is published, the next search builds it again
+            build.done.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(userId, build);
+        }
+    }
+
+    // add or re-index an application once the transaction commits, ignored when the owner's index is not built
+    public void index(JobApplication application) {
+        Long userId = application.getUser().getId();
+        afterCommit(() -> apply(userId, index -> index.add(application)));
+    }
+
+    // remove an application from its owner's index once the transaction commits
+    public void remove(Long userId, Long applicationId) {
+        afterCommit(() -> apply(userId, index -> index.remove(applicationId)));
+    }
+
+    // drop a user's index, it is built again on the next search
+    public void evict(Long userId) {
+        indexes.invalidate(userId);
+    }
+
+    private void apply(Long userId, Consumer<UserIndex> change) {
+        Build build = building.get(userId);
+        if (build != null && build.record(change)) {
+            return;
+        }
+
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            change.accept(index);
+        }
+    }
+
+    // outside a transaction (tests, scripts) the change is applied right away
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /* An index being built and the changes committed while it streams
+     * publishing replays them and puts the index in the cache under the same
+     * lock, a change after that goes to the cached index directly
+     */
+    private class Build {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final List<Consumer<UserIndex>> changes = new ArrayList<>();
+        private boolean published;
+
+        // false once published, the caller applies the change to the cache
+        synchronized boolean record(Consumer<UserIndex> change) {
+            if (published) {
+                return false;
+            }
+            changes.add(change);
+            return true;
+        }
+
+        synchronized void publish(Long userId, UserIndex index) {
+            changes.forEach(change -> change.accept(index));
+            changes.clear();
+            indexes.put(userId, index);
+            published = true;
+        }
+    }
+
+    /* Search a user's index
+     * returns the ranked ids of the requested page and the total number of hits
+     * the user's index must be loaded first
+     */
+    public SearchHits search(Long userId, String query, int page, int size) {
+        UserIndex index = indexes.getIfPresent(userId);
+        List<String> terms = tokenize(query);
+
+        if (index == null || terms.isEmpty()) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(index.score(terms).entrySet());
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+        int from = Math.min(page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Map.Entry<Long, Float> entry : ranked.subList(from, to)) {
+            ids.add(entry.getKey());
+        }
+
+        return new SearchHits(ids, ranked.size());
+    }
+
+    /* One page of ranked application ids plus the total hit count */
+    public record SearchHits(List<Long> ids, long total) {
+    }
+
+    // lower case words, anything that is not a letter or digit separates terms
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /* Levenshtein distance that gives up once it goes over max
+     * returns max + 1 when the distance is larger than max
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+
+            if (rowMin > max) {
+                return max + 1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[b.length()];
+    }
+
+    /* Index of a single user
+     * postings is sorted so prefix lookups are a range scan
+     * termsByApplication remembers what to remove when an application changes
+     */
+    private static class UserIndex {
+
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> termsByApplication = new HashMap<>();
+
+        synchronized void add(JobApplication application) {
+            remove(application.getId());
+
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, application.getCompanyName(), COMPANY_WEIGHT);
+            addField(weights, application.getPosition(), POSITION_WEIGHT);
+            addField(weights, application.getContactPerson(), CONTACT_WEIGHT);
+            addField(weights, application.getLocation(), LOCATION_WEIGHT);
+            addField(weights, application.getNotes(), NOTES_WEIGHT);
+
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                        .put(application.getId(), entry.getValue());
+            }
+            termsByApplication.put(application.getId(), new HashSet<>(weights.keySet()));
+        }
+
+        synchronized void remove(Long applicationId) {
+            Set<String> terms = termsByApplication.remove(applicationId);
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(applicationId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        // score every application that matches all query terms
+        synchronized Map<Long, Float> score(List<String> queryTerms) {
+            Map<Long, Float> scores = null;
+
+            for (String queryTerm : queryTerms) {
+                Map<Long, Float> termScores = matchTerm(queryTerm);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // keep only applications that matched the earlier terms too
+                    Iterator<Map.Entry<Long, Float>> iterator = scores.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<Long, Float> entry = iterator.next();
+                        Float termScore = termScores.get(entry.getKey());
+                        if (termScore == null) {
+                            iterator.remove();
+                        } else {
+                            entry.setValue(entry.getValue() + termScore);
+                        }
+                    }
+                }
+
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            return scores;
+        }
+
+        // best score per application for one query term (exact, prefix or fuzzy)
+        private Map<Long, Float> matchTerm(String queryTerm) {
+            Map<Long, Float> termScores = new HashMap<>();
+
+            // exact and prefix matches are one range scan of the sorted terms
+            for (Map.Entry<String, Map<Long, Float>> entry : postings
+                    .subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).entrySet()) {
+                float factor = entry.getKey().equals(queryTerm) ? 1.0f : PREFIX_FACTOR;
+                collect(termScores, entry.getValue(), factor);
+            }
+
+            // fuzzy matches need a scan of the user's terms, only worth it for longer words
+            if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+                int maxEdits = queryTerm.length() >= 8 ? 2 : 1;
+                for (Map.Entry<String, Map<Long, Float>> entry : postings.entrySet()) {
+                    String term = entry.getKey();
+                    if (term.startsWith(queryTerm)) {
+                        continue;
+                    }
+                    if (editDistance(queryTerm, term, maxEdits) <= maxEdits) {
+                        collect(termScores, entry.getValue(), FUZZY_FACTOR);
+                    }
+                }
+            }
+
+            return termScores;
+        }
+
+        private static void collect(Map<Long, Float> termScores, Map<Long, Float> posting, float factor) {
+            for (Map.Entry<Long, Float> hit : posting.entrySet()) {
+                termScores.merge(hit.getKey(), hit.getValue() * factor, Math::max);
+            }
+        }
+
+        // a term that appears in several fields keeps its highest weight
+        private static void addField(Map<String, Float> weights, String value, float weight) {
+            for (String term : tokenize(value)) {
+                weights.merge(term, weight, Math::max);
+            }
+        }
+    }
+}
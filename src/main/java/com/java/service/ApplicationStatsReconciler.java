@@ -0,0 +1,81 @@
+package com.java.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.java.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/* Nightly check of the per-user application counters
+ * every user is recounted from job_applications in its own transaction,
+ * drifted counters (failed writes, manual sql, old bugs) are repaired
+ * and counted in the "app.stats.repaired" metric
+ *
+ * with several nodes every node runs the job but only checks the users of the
+ * shards it holds (ShardLeaseManager), so each user is recounted by one node
+ */
+@Component
+public class ApplicationStatsReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationStatsReconciler.class);
+
+    // user ids loaded per query
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationStatsService statsService;
+
+    @Autowired
+    private ShardLeaseManager leaseManager;
+
+    // optional so the job also runs without actuator metrics
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+
+        long afterId = 0;
+        int users = 0;
+        int repaired = 0;
+        int failed = 0;
+
+        List<Long> ids;
+        do {
+            ids = userRepository.findIdsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+            for (Long userId : ids) {
+                if (!leaseManager.ownsUser(userId)) {
+                    continue;
+                }
+                users++;
+                try {
+                    if (statsService.reconcileUser(userId)) {
+                        repaired++;
+                    }
+                } catch (RuntimeException e) {
+                    // one broken user must not stop the others, it is retried next run
+                    failed++;
+                    logger.warn("Stats reconciliation failed for user {}", userId, e);
+                }
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == PAGE_SIZE);
+
+        if (meterRegistry != null && repaired > 0) {
+            meterRegistry.counter("app.stats.repaired").increment(repaired);
+        }
+        logger.info("Stats reconciliation: {} users checked, {} repaired, {} failed", users, repaired, failed);
+    }
+}
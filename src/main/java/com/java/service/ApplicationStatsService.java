@@ -0,0 +1,251 @@
+package com.java.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.UserApplicationStat;
+import com.java.model.UserApplicationStat.Category;
+import com.java.model.UserApplicationStat.Key;
+import com.java.repository.JobApplicationRepository;
+import com.java.repository.UserApplicationStatRepository;
+
+/* Pre-computed application counts per user (total, per status, per source)
+ *
+ * writes -> JobApplicationService reports every create, update and delete here
+ *           inside its own transaction, the counters move with the rows
+ *           (count = count + delta in the database, no read-modify-write)
+ * reads  -> one primary key range read of a few rows, no matter how many
+ *           applications the user has
+ *
+ * every counter row of a user exists from registration on (createCounters, V10
+ * for older users), writers only increment and never race to insert a row.
+ * the counters of one write are always updated in key order, two transactions
+ * touching the same counters lock them in the same order and cannot deadlock
+ *
+ * reconcileUser recounts a user from job_applications and repairs any drift,
+ * it runs nightly from ApplicationStatsReconciler
+ */
+@Service
+public class ApplicationStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationStatsService.class);
+
+    private static final String TOTAL_NAME = "ALL";
+
+    // lock order of the counter rows, the primary key order
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::getUserId)
+            .thenComparing(Key::getCategory)
+            .thenComparing(Key::getName);
+
+    @Autowired
+    private UserApplicationStatRepository statRepository;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    /* Counters of a user read in one query
+     * every status and source is present, missing counters are zero
+     */
+    public Counts getCounts(Long userId) {
+
+        Map<ApplicationStatus, Long> byStatus = new EnumMap<>(ApplicationStatus.class);
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            byStatus.put(status, 0L);
+        }
+
+        Map<ApplicationSource, Long> bySource = new EnumMap<>(ApplicationSource.class);
+        for (ApplicationSource source : ApplicationSource.values()) {
+            bySource.put(source, 0L);
+        }
+
+        long total = 0;
+        for (UserApplicationStat stat : statRepository.findByUserId(userId)) {
+            Key key = stat.getId();
+            switch (key.getCategory()) {
+                case TOTAL -> total = stat.getCount();
+                case STATUS -> byStatus.put(ApplicationStatus.valueOf(key.getName()), stat.getCount());
+                case SOURCE -> bySource.put(ApplicationSource.valueOf(key.getName()), stat.getCount());
+            }
+        }
+
+        return new Counts(total, byStatus, bySource);
+    }
+
+    public long getTotal(Long userId) {
+        return count(totalKey(userId));
+    }
+
+    public long getStatusCount(Long userId, ApplicationStatus status) {
+        return count(statusKey(userId, status));
+    }
+
+    // every counter of a new user at zero, in the transaction that creates the user
+    @Transactional
+    public void createCounters(Long userId) {
+        List<UserApplicationStat> counters = new ArrayList<>();
+        counters.add(new UserApplicationStat(totalKey(userId), 0));
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            counters.add(new UserApplicationStat(statusKey(userId, status), 0));
+        }
+        for (ApplicationSource source : ApplicationSource.values()) {
+            counters.add(new UserApplicationStat(sourceKey(userId, source), 0));
+        }
+        statRepository.saveAll(counters);
+    }
+
+    // new applications of a user, bulk inserts report the whole list at once
+    @Transactional
+    public void applicationsAdded(Long userId, Collection<JobApplication> applications) {
+        Map<Key, Long> deltas = new HashMap<>();
+        for (JobApplication application : applications) {
+            addTo(deltas, userId, application.getStatus(), application.getSource(), 1);
+        }
+        apply(deltas);
+    }
+
+    /* Deleted applications of a user
+     * rows are [status, source, count] as returned by the grouped count queries,
+     * deletes run as one statement and never load the entities
+     */
+    @Transactional
+    public void applicationsRemoved(Long userId, List<Object[]> statusSourceCounts) {
+        Map<Key, Long> deltas = new HashMap<>();
+        for (Object[] row : statusSourceCounts) {
+            addTo(deltas, userId, (ApplicationStatus) row[0], (ApplicationSource) row[1], -(Long) row[2]);
+        }
+        apply(deltas);
+    }
+
+    // an update only touches the counters when status or source changed
+    @Transactional
+    public void applicationChanged(Long userId, ApplicationStatus oldStatus, ApplicationSource oldSource,
+            JobApplication updated) {
+
+        if (oldStatus == updated.getStatus() && oldSource == updated.getSource()) {
+            return;
+        }
+
+        Map<Key, Long> deltas = new HashMap<>();
+        addTo(deltas, userId, oldStatus, oldSource, -1);
+        addTo(deltas, userId, updated.getStatus(), updated.getSource(), 1);
+        apply(deltas);
+    }
+
+    /* Recount a user from job_applications and fix every counter that drifted
+     * the user's counter rows are locked first so concurrent writers wait
+     * until the repaired values are committed
+     * returns true when something had to be repaired
+     */
+    @Transactional
+    public boolean reconcileUser(Long userId) {
+
+        Map<Key, UserApplicationStat> stored = new HashMap<>();
+        for (UserApplicationStat stat : statRepository.lockByUserId(userId)) {
+            stored.put(stat.getId(), stat);
+        }
+
+        Map<Key, Long> actual = new HashMap<>();
+        for (Object[] row : jobApplicationRepository.countByStatusAndSourceForUserId(userId)) {
+            addTo(actual, userId, (ApplicationStatus) row[0], (ApplicationSource) row[1], (Long) row[2]);
+        }
+
+        Set<Key> keys = new HashSet<>(stored.keySet());
+        keys.addAll(actual.keySet());
+
+        boolean drift = false;
+        for (Key key : keys) {
+            long expected = actual.getOrDefault(key, 0L);
+            UserApplicationStat stat = stored.get(key);
+
+            if (stat == null) {
+                if (expected != 0) {
+                    statRepository.save(new UserApplicationStat(key, expected));
+                    drift = true;
+                }
+            } else if (stat.getCount() != expected) {
+                logger.warn("Application counter {}/{} of user {} drifted: stored {}, actual {}",
+                        key.getCategory(), key.getName(), userId, stat.getCount(), expected);
+                stat.setCount(expected);
+                drift = true;
+            }
+        }
+
+        return drift;
+    }
+
+    private long count(Key key) {
+        return statRepository.findById(key).map(UserApplicationStat::getCount).orElse(0L);
+    }
+
+    private static void addTo(Map<Key, Long> deltas, Long userId, ApplicationStatus status,
+            ApplicationSource source, long delta) {
+        deltas.merge(totalKey(userId), delta, Long::sum);
+        if (status != null) {
+            deltas.merge(statusKey(userId, status), delta, Long::sum);
+        }
+        if (source != null) {
+            deltas.merge(sourceKey(userId, source), delta, Long::sum);
+        }
+    }
+
+    /* One atomic increment per changed counter, in key order
+     * a missing row is only possible for users that were stored without
+     * createCounters (tests, benchmarks) and is created here
+     */
+    private void apply(Map<Key, Long> deltas) {
+        Map<Key, Long> ordered = new TreeMap<>(KEY_ORDER);
+        ordered.putAll(deltas);
+
+        for (Map.Entry<Key, Long> delta : ordered.entrySet()) {
+            if (delta.getValue() == 0) {
+                continue;
+            }
+
+            Key key = delta.getKey();
+            int updated = statRepository.increment(key.getUserId(), key.getCategory(), key.getName(), delta.getValue());
+
+            if (updated == 0) {
+                if (delta.getValue() > 0) {
+                    statRepository.save(new UserApplicationStat(key, delta.getValue()));
+                } else {
+                    // nothing to decrement, the counter was never there, reconciliation fixes it
+                    logger.warn("Missing application counter {}/{} for user {}", key.getCategory(), key.getName(),
+                            key.getUserId());
+                }
+            }
+        }
+    }
+
+    private static Key totalKey(Long userId) {
+        return new Key(userId, Category.TOTAL, TOTAL_NAME);
+    }
+
+    private static Key statusKey(Long userId, ApplicationStatus status) {
+        return new Key(userId, Category.STATUS, status.name());
+    }
+
+    private static Key sourceKey(Long userId, ApplicationSource source) {
+        return new Key(userId, Category.SOURCE, source.name());
+    }
+
+    /* All counters of a user, every status and source has an entry */
+    public record Counts(long total, Map<ApplicationStatus, Long> byStatus, Map<ApplicationSource, Long> bySource) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.java.dto.ApplicationRecord;
+import com.java.dto.ImportReport;
+import com.java.dto.ImportReport.ChunkReport;
+import com.java.dto.ImportReport.RowError;
+import com.java.model.JobApplication;
+import com.java.model.User;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/* Bulk import and export of a user's applications as CSV or NDJSON
+ *
+ * import  -> the file is parsed record by record, only one chunk is in memory at a time
+ *            the rows of a chunk are validated in parallel against the entity
+ *            constraints (@NotBlank, @Size) and the valid ones are committed with
+ *            one batched insert, so a bad row or a failed chunk never loses the rest
+ *            rows that are stored already are skipped and counted as duplicates,
+ *            importing the same file again changes nothing
+ * export  -> rows are streamed from the database cursor straight into the output,
+ *            no List of the whole history is ever built
+ *
+ * csv files need a header line, columns are matched by name (see ApplicationRecord)
+ */
+@Service
+public class ApplicationTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationTransferService.class);
+
+    // rejected rows kept per chunk in the report, the rest are only counted
+    private static final int MAX_ERRORS_PER_CHUNK = 100;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT)
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    @Autowired
+    private JobApplicationService jobApplicationService;
+
+    @Autowired
+    private GmailMessageDedupe messageDedupe;
+
+    @Autowired
+    private Validator validator;
+
+    // rows committed per transaction
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public ImportReport importCsv(InputStream input, User user) throws IOException {
+        ObjectReader reader = CSV_MAPPER.readerFor(ApplicationRecord.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        return importRecords(reader.readValues(input), user);
+    }
+
+    // one json object per line
+    public ImportReport importNdjson(InputStream input, User user) throws IOException {
+        return importRecords(JSON_MAPPER.readerFor(ApplicationRecord.class).readValues(input), user);
+    }
+
+    public long exportCsv(User user, OutputStream output) throws IOException {
+        CsvSchema schema = CSV_MAPPER.schemaFor(ApplicationRecord.class).withHeader();
+        return export(user, CSV_MAPPER.writerFor(ApplicationRecord.class).with(schema), output);
+    }
+
+    public long exportNdjson(User user, OutputStream output) throws IOException {
+        return export(user, JSON_MAPPER.writerFor(ApplicationRecord.class).withRootValueSeparator("\n"), output);
+    }
+
+    private ImportReport importRecords(MappingIterator<ApplicationRecord> records, User user) throws IOException {
+
+        List<ChunkReport> chunks = new ArrayList<>();
+        List<ApplicationRecord> rows = new ArrayList<>(chunkSize);
+        List<RowError> parseErrors = new ArrayList<>();
+        long rowsRead = 0;
+        long imported = 0;
+        long firstRow = 1;
+
+        try (records) {
+            boolean more = true;
+            while (more) {
+                try {
+                    more = records.hasNextValue();
+                    if (more) {
+                        ApplicationRecord record = records.nextValue();
+                        rowsRead++;
+                        rows.add(record);
+                    }
+                } catch (JsonMappingException e) {
+                    // a value of the row could not be mapped (bad date, unknown status), skip just that row,
+                    // the iterator resyncs to the next record
+                    rowsRead++;
+                    rows.add(null);
+                    addError(parseErrors, new RowError(rowsRead, null, e.getMessage()));
+                } catch (JsonProcessingException | RuntimeException e) {
+                    // broken file syntax, nothing after this point can be trusted
+                    rowsRead++;
+                    rows.add(null);
+                    addError(parseErrors, new RowError(rowsRead, null, "Unreadable input: " + e.getMessage()));
+                    more = false;
+                }
+
+                if (rows.size() == chunkSize || (!more && !rows.isEmpty())) {
+                    ChunkReport chunk = importChunk(chunks.size() + 1, firstRow, rows, parseErrors, user);
+                    chunks.add(chunk);
+                    imported += chunk.imported();
+                    firstRow += rows.size();
+                    rows.clear();
+                    parseErrors = new ArrayList<>();
+                }
+            }
+        } finally {
+            if (imported > 0) {
+                // imported rows may carry gmail message ids the dedupe filter does not know yet
+                messageDedupe.evict(user.getId());
+            }
+        }
+
+        ImportReport report = new ImportReport(rowsRead, imported, chunks);
+        logger.info("Import for user {}: {} rows read, {} imported, {} already stored, in {} chunks",
+                user.getId(), rowsRead, imported, report.duplicates(), chunks.size());
+
+        return report;
+    }
+
+    /* Validate one chunk in parallel and commit its valid rows
+     * rows holds null for records that could not be parsed (already in errors)
+     */
+    private ChunkReport importChunk(int number, long firstRow, List<ApplicationRecord> rows, List<RowError> errors,
+            User user) {
+
+        List<JobApplication> applications = rows.stream().map(row -> row == null ? null : row.toEntity()).toList();
+
+        // the validator is thread safe, rows are independent of each other
+        List<Set<ConstraintViolation<JobApplication>>> violations = IntStream.range(0, applications.size())
+                .parallel()
+                .mapToObj(i -> applications.get(i) == null ? Set.<ConstraintViolation<JobApplication>>of()
+                        : validator.validate(applications.get(i)))
+                .toList();
+
+        List<JobApplication> valid = new ArrayList<>(applications.size());
+        for (int i = 0; i < applications.size(); i++) {
+            if (applications.get(i) == null) {
+                continue;
+            }
+            if (violations.get(i).isEmpty()) {
+                valid.add(applications.get(i));
+                continue;
+            }
+            for (ConstraintViolation<JobApplication> violation : violations.get(i)) {
+                addError(errors, new RowError(firstRow + i, violation.getPropertyPath().toString(),
+                        violation.getMessage()));
+            }
+        }
+
+        long lastRow = firstRow + rows.size() - 1;
+        if (valid.isEmpty()) {
+            return new ChunkReport(number, firstRow, lastRow, 0, 0, true, errors);
+        }
+
+        // every chunk is its own transaction, a failure only rolls back this chunk
+        try {
+            int created = jobApplicationService.importApplications(valid, user);
+            return new ChunkReport(number, firstRow, lastRow, created, valid.size() - created, true, errors);
+        } catch (RuntimeException e) {
+            logger.warn("Import chunk {} (rows {}-{}) of user {} failed", number, firstRow, lastRow, user.getId(), e);
+            addError(errors, new RowError(firstRow, null, "Chunk not stored: " + e.getMessage()));
+            return new ChunkReport(number, firstRow, lastRow, 0, 0, false, errors);
+        }
+    }
+
+    private static void addError(List<RowError> errors, RowError error) {
+        if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+            errors.add(error);
+        }
+    }
+
+    // writes every application of the user while the database cursor is open
+    private long export(User user, ObjectWriter writer, OutputStream output) throws IOException {
+
+        try (SequenceWriter sequence = writer.writeValues(output)) {
+            return jobApplicationService.forEachApplication(user, application -> {
+                try {
+                    sequence.write(ApplicationRecord.from(application));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
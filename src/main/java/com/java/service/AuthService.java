@@ -14,15 +14,23 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.java.config.GmailConfig;
+import com.java.config.MetricsConfig;
 import com.java.dto.JwtResponse;
 import com.java.dto.LoginRequest;
 import com.java.dto.RegisterRequest;
 import com.java.model.User;
 import com.java.repository.UserRepository;
 import com.java.security.JwtUtils;
+import com.java.security.TokenRevocationList;
 import com.java.security.UserPrincipal;
 
+import io.micrometer.core.annotation.Timed;
+
 /* Authentication -> verify user credentials and generate JWT tokens
  * Registration -> create new user account with password encryption
  * 
@@ -32,6 +40,7 @@ import com.java.security.UserPrincipal;
  */
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, description = "Service method latency")
 public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
@@ -63,6 +72,30 @@ public class AuthService {
     @Autowired 
     private JwtUtils jwtUtils;
 
+    /* Injects the user cache so the current user is not
+     * loaded from the database on every call
+     */
+    @Autowired
+    private UserCacheService userCacheService;
+
+    /* Injects the gmail config so cached gmail clients are
+     * dropped when a user's gmail tokens change
+     */
+    @Autowired
+    private GmailConfig gmailConfig;
+
+    /* Injects the revocation list so tokens of a deactivated user
+     * are no longer trusted on their claims alone
+     */
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    /* Injects the application counters, a new user gets all of
+     * them (at zero) together with the user row
+     */
+    @Autowired
+    private ApplicationStatsService statsService;
+
     /* authenticateUser handles login
      * validates credentials using authentication manager
      * if valid sets authentication in the security context holder so
@@ -83,9 +116,8 @@ public class AuthService {
           
           UserPrincipal userPrincipal = (UserPrincipal)authentication.getPrincipal();
 
-        //   get user details
-        User user = userRepository.findByEmail(userPrincipal.getEmail())
-        .orElseThrow(() -> new RuntimeException("user not found"));
+        //   get user details, this also warms the user cache for the next requests
+        User user = userCacheService.getUser(userPrincipal.getId());
 
         return new JwtResponse(jwt,
         userPrincipal.getEmail(),
@@ -101,7 +133,9 @@ public class AuthService {
      * if not creates a new user object
      * Encrypts the password using passwordEncoder 
      * saves the user in the database via User Repository
+     * creates the user's application counters in the same transaction
      */
+    @Transactional
     public User registerUser(RegisterRequest signUp){
 
         // checks email already exists or not 
@@ -112,22 +146,24 @@ public class AuthService {
         User user = new User(signUp.getEmail(), encoder.encode(signUp.getPassword()),
         signUp.getFirstName(), signUp.getLastName());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        statsService.createCounters(saved.getId());
+        return saved;
 
     }
 
     /* getCurrent user useful when we want to know who is making request like saving user jobs
      * reads authentication info from securityContextHolder
      * extracts User Principal 
-     * find User in DB using email
+     * find User by the principal id through the user cache
+     * (same request -> memo, other requests -> shared cache, otherwise DB)
      * 
      */
     public User getCurrentUser(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if(authentication != null && authentication.getPrincipal() instanceof UserPrincipal){
             UserPrincipal userPrincipal = (UserPrincipal)authentication.getPrincipal();
-            return userRepository.findByEmail(userPrincipal.getEmail())
-            .orElseThrow(() -> new RuntimeException("user not found"));
+            return userCacheService.getUser(userPrincipal.getId());
         }
 
         throw new RuntimeException("No authenticate user found");
@@ -140,11 +176,14 @@ public class AuthService {
      * logs the update 
      * app will link gmail so users can use gmail-related features
      */
+    @Transactional
     public void updateGmailConnection(User user, String token, String refreshToken){
-        user.setGmailToken(token);
-        user.setGmailRefreshToken(refreshToken);
-        user.setGmailConnected(true);
-        userRepository.save(user);
+        User managed = loadForUpdate(user.getId());
+        managed.setGmailToken(token);
+        managed.setGmailRefreshToken(refreshToken);
+        managed.setGmailConnected(true);
+        userRepository.save(managed);
+        evictAfterCommit(user.getId());
 
         logger.info("Gmail connection update for the user: {}", user.getEmail());
     }
@@ -156,15 +195,67 @@ public class AuthService {
      * saves changes in db 
      * logs the connection
      */
+    @Transactional
     public void disconnectGmail(User user){
-        user.setGmailToken(null);
-        user.setGmailRefreshToken(null);
-        user.setGmailConnected(false);
-        userRepository.save(user);
+        User managed = loadForUpdate(user.getId());
+        managed.setGmailToken(null);
+        managed.setGmailRefreshToken(null);
+        managed.setGmailConnected(false);
+        userRepository.save(managed);
+        evictAfterCommit(user.getId());
 
         logger.info("Gmail disconnected for the user : {}", user.getEmail());
     }
 
+    /*logout - the token can not be used again
+     * it stays revoked until it would have expired anyway
+     */
+    public void logout(String token){
+        jwtUtils.parseClaims(token).ifPresent(claims -> revocationList.revokeToken(claims.getId()));
+    }
+
+    /*deactivateUser - turns off a user account
+     * marks isActive = false
+     * saves changes in db
+     * evicts the cached user so no request keeps using the old state
+     * flags the user's tokens so the next request checks the account in the db
+     */
+    @Transactional
+    public void deactivateUser(User user){
+        User managed = loadForUpdate(user.getId());
+        managed.setActive(false);
+        userRepository.save(managed);
+        evictAfterCommit(user.getId());
+        revocationList.revokeUser(user.getId());
+
+        logger.info("User deactivated : {}", user.getEmail());
+    }
+
+    /* the user passed in usually comes from the user cache (a copy of a shared snapshot),
+     * changes are made on the row loaded in this transaction instead
+     */
+    private User loadForUpdate(Long userId){
+        return userRepository.findById(userId)
+        .orElseThrow(() -> new RuntimeException("user not found"));
+    }
+
+    /* drop the cached user and gmail client now and once more after commit,
+     * so no request keeps (or re-caches) the state from before the change
+     */
+    private void evictAfterCommit(Long userId){
+        userCacheService.evict(userId);
+        gmailConfig.evictGmailClient(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    gmailConfig.evictGmailClient(userId);
+                }
+            });
+        }
+    }
+
 
 
 
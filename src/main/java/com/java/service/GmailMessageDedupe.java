@@ -0,0 +1,182 @@
+package com.java.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.java.repository.JobApplicationRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/* Answers "which of these gmail messages did we already import" for a whole batch
+ *
+ * per user there is
+ * bloom filter     -> every imported message id, a "no" is certain so a batch of
+ *                     brand new messages (the usual incremental sync) needs no query
+ * recently known   -> exact ids confirmed or imported lately, answers re-seen
+ *                     messages (full scan fallback) without a query
+ * everything else is checked with one IN query per 1000 ids
+ *
+ * the filter of a user is built from the database on first use and sized for
+ * what the user has stored, the cache is bounded by the estimated heap of the
+ * filters and recent sets (gmail.dedupe.max-weight-mb), not by the number of users
+ *
+ * a "no" is only certain while nobody else imports for that user, so the state
+ * of a user is dropped
+ *   after gmail.dedupe.max-age-minutes
+ *   when the user's shard is released (another node syncs them from then on)
+ *   when applications of the user are deleted or imported from a file
+ * a stale "no" that slips through anyway is skipped by createApplications,
+ * which never inserts a gmail message the user already has
+ */
+@Component
+public class GmailMessageDedupe {
+
+    // ids per IN query, stays below the parameter limits of mysql and h2
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    // rough heap cost of one id in the recent set (string plus linked map entry)
+    private static final long RECENT_ID_BYTES = 100;
+
+    // a filter is sized for twice the ids the user has stored, and never below this
+    @Value("${gmail.dedupe.min-expected-messages:1000}")
+    private int minExpectedMessages = 1000;
+
+    @Value("${gmail.dedupe.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    // a full scan sees at most gmail.sync.full-scan-max-messages (500) messages
+    @Value("${gmail.dedupe.recent-ids-per-user:500}")
+    private int recentIdsPerUser = 500;
+
+    // heap for the state of all users together, users with big mailboxes weigh more
+    @Value("${gmail.dedupe.max-weight-mb:64}")
+    private long maxWeightMb = 64;
+
+    @Value("${gmail.dedupe.max-age-minutes:60}")
+    private long maxAgeMinutes = 60;
+
+    private Cache<Long, KnownMessages> knownByUser;
+
+    @PostConstruct
+    void initCache() {
+        knownByUser = Caffeine.newBuilder()
+                .maximumWeight(maxWeightMb * 1024 * 1024)
+                .weigher((Long userId, KnownMessages known) -> known.bytes())
+                .expireAfterWrite(Duration.ofMinutes(maxAgeMinutes))
+                .build();
+    }
+
+    /* Return the ids from messageIds that are already imported for the user */
+    public Set<String> findKnown(Long userId, Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return Set.of();
+        }
+
+        KnownMessages known = knownByUser.get(userId, this::load);
+
+        Set<String> result = new HashSet<>();
+        List<String> unsure = new ArrayList<>();
+
+        for (String messageId : messageIds) {
+            if (!known.filter.mightContain(messageId)) {
+                continue; // certainly new
+            }
+            if (known.recent.contains(messageId)) {
+                result.add(messageId);
+            } else {
+                unsure.add(messageId);
+            }
+        }
+
+        // only the ids the filter could not decide go to the database
+        for (int from = 0; from < unsure.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = unsure.subList(from, Math.min(from + IN_CHUNK_SIZE, unsure.size()));
+            List<String> found = jobApplicationRepository.findKnownGmailMessageIds(userId, chunk);
+            result.addAll(found);
+            known.recent.addAll(found);
+        }
+
+        return result;
+    }
+
+    // remember freshly imported messages so they are never imported again
+    public void recordImported(Long userId, Collection<String> messageIds) {
+        KnownMessages known = knownByUser.getIfPresent(userId);
+        if (known == null) {
+            return; // loaded from the database with these ids next time
+        }
+
+        for (String messageId : messageIds) {
+            known.filter.put(messageId);
+        }
+        known.recent.addAll(messageIds);
+    }
+
+    // forget a user, the filter is built again on the next lookup
+    public void evict(Long userId) {
+        knownByUser.invalidate(userId);
+    }
+
+    // another node may import for these users now
+    @EventListener
+    public void onShardsReleased(ShardLeaseManager.ShardsReleased released) {
+        knownByUser.asMap().keySet().removeIf(released::contains);
+    }
+
+    private KnownMessages load(Long userId) {
+        List<String> ids = jobApplicationRepository.findAllGmailMessageIds(userId);
+
+        long expected = Math.max(minExpectedMessages, ids.size() * 2L);
+        BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                expected, falsePositiveRate);
+        for (String id : ids) {
+            filter.put(id);
+        }
+
+        // the recent set is counted full, the weight of an entry is fixed when it is cached
+        long bytes = filterBytes(expected, falsePositiveRate) + recentIdsPerUser * RECENT_ID_BYTES;
+        return new KnownMessages(filter, recentIdSet(recentIdsPerUser), (int) Math.min(bytes, Integer.MAX_VALUE));
+    }
+
+    // bits of an optimal bloom filter, the size guava allocates: -n * ln(p) / ln(2)^2
+    static long filterBytes(long expectedInsertions, double falsePositiveRate) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return (long) Math.ceil(bits / 8);
+    }
+
+    // bounded set that drops the least recently added ids first
+    private static Set<String> recentIdSet(int maxSize) {
+        return Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        }));
+    }
+
+    /* dedupe state of one user, the guava bloom filter is thread safe
+     * bytes is the estimated heap it takes, its weight in the cache
+     */
+    private record KnownMessages(BloomFilter<CharSequence> filter, Set<String> recent, int bytes) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.Message;
+
+/* Downloads gmail messages in batches
+ *
+ * one users.messages.get per email would be one https round trip per email,
+ * instead up to 100 gets are sent in one batch request (the gmail batch endpoint)
+ * and several batches run at the same time on the gmail executor
+ *
+ * only format=metadata with the requested headers is asked for,
+ * message bodies are never downloaded
+ */
+@Component
+public class GmailMessageFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailMessageFetcher.class);
+
+    // gmail rejects batches with more than 100 calls
+    static final int MAX_BATCH_SIZE = 100;
+
+    private static final String ME = "me";
+
+    // calls per batch request, gmail recommends staying at or below 50
+    @Value("${gmail.fetch.batch-size:50}")
+    private int batchSize = 50;
+
+    // how many batch requests of one fetch can be in flight at the same time
+    @Value("${gmail.fetch.max-concurrent-batches:4}")
+    private int maxConcurrentBatches = 4;
+
+    @Autowired
+    @Qualifier("gmailTaskExecutor")
+    private Executor gmailTaskExecutor;
+
+    @Autowired
+    private GmailQuotaLimiter quotaLimiter;
+
+    /* Fetch the metadata of the given messages of a user
+     * results keep the order of messageIds, messages deleted in the
+     * meantime (404) are left out, any other failure fails the whole fetch
+     */
+    public List<Message> fetchMetadata(Long userId, Gmail gmail, List<String> messageIds, List<String> headers)
+            throws IOException {
+
+        int size = Math.min(Math.max(batchSize, 1), MAX_BATCH_SIZE);
+        Semaphore inFlight = new Semaphore(Math.max(maxConcurrentBatches, 1));
+        List<CompletableFuture<List<Message>>> batches = new ArrayList<>();
+
+        try {
+            for (int from = 0; from < messageIds.size(); from += size) {
+                List<String> ids = messageIds.subList(from, Math.min(from + size, messageIds.size()));
+
+                // a batch costs the quota of all its gets, wait here so no executor thread sleeps
+                quotaLimiter.acquire(userId, ids.size() * GmailQuotaLimiter.MESSAGES_GET_UNITS);
+
+                // wait for a free slot so only a bounded number of batches run at once
+                inFlight.acquire();
+                try {
+                    batches.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return executeBatch(gmail, ids, headers);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, gmailTaskExecutor));
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+
+            List<Message> messages = new ArrayList<>(messageIds.size());
+            for (CompletableFuture<List<Message>> batch : batches) {
+                messages.addAll(batch.join());
+            }
+            return messages;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching gmail messages", e);
+
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // one batch request with a messages.get call per id
+    private List<Message> executeBatch(Gmail gmail, List<String> ids, List<String> headers) throws IOException {
+
+        // the client's initializer adds the access token to the batch request itself
+        BatchRequest batch = gmail.batch(gmail.getRequestFactory().getInitializer());
+        Message[] results = new Message[ids.size()];
+        List<String> failures = new ArrayList<>();
+        // status and Retry-After of the parts gmail rate limited, the scheduler backs off on them
+        int[] status = new int[1];
+        boolean[] rateLimited = new boolean[1];
+        String[] retryAfter = new String[1];
+
+        for (int i = 0; i < ids.size(); i++) {
+            int position = i;
+            String id = ids.get(i);
+
+            gmail.users().messages().get(ME, id)
+                    .setFormat("metadata")
+                    .setMetadataHeaders(headers)
+                    .queue(batch, new JsonBatchCallback<Message>() {
+
+                        @Override
+                        public void onSuccess(Message message, HttpHeaders responseHeaders) {
+                            results[position] = message;
+                        }
+
+                        @Override
+                        public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                            if (error.getCode() == 404) {
+                                logger.debug("Gmail message {} no longer exists, skipping", id);
+                                return;
+                            }
+
+                            failures.add(id + " (" + error.getCode() + " " + error.getMessage() + ")");
+                            if (GmailFetchException.isRateLimited(error.getCode(), error)) {
+                                status[0] = error.getCode();
+                                rateLimited[0] = true;
+                                if (responseHeaders != null && responseHeaders.getRetryAfter() != null) {
+                                    retryAfter[0] = responseHeaders.getRetryAfter();
+                                }
+                            } else if (!rateLimited[0] && status[0] == 0) {
+                                status[0] = error.getCode();
+                            }
+                        }
+                    });
+        }
+
+        batch.execute();
+
+        if (!failures.isEmpty()) {
+            throw new GmailFetchException(failures, status[0], rateLimited[0], retryAfter[0]);
+        }
+
+        List<Message> messages = new ArrayList<>(ids.size());
+        for (Message message : results) {
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    /* Some calls of a batch failed for another reason than a deleted message
+     * the sync is aborted so its checkpoint is not moved past these messages
+     *
+     * carries the http status of the failed calls (a rate limit wins over other
+     * errors) and gmail's Retry-After, so a 429 inside a batch backs off like
+     * a 429 of a plain request (GmailSyncScheduler)
+     */
+    public static class GmailFetchException extends IOException {
+
+        private final int statusCode;
+        private final boolean rateLimited;
+        private final String retryAfter;
+
+        public GmailFetchException(List<String> failures) {
+            this(failures, 0, false, null);
+        }
+
+        public GmailFetchException(List<String> failures, int statusCode, boolean rateLimited, String retryAfter) {
+            super("Gmail batch fetch failed for " + failures.size() + " messages: " + failures);
+            this.statusCode = statusCode;
+            this.rateLimited = rateLimited;
+            this.retryAfter = retryAfter;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        // Retry-After header of a rate limited call, null when gmail sent none
+        public String getRetryAfter() {
+            return retryAfter;
+        }
+
+        public boolean isRateLimited() {
+            return rateLimited;
+        }
+
+        // 429, or 403 with one of gmail's rate limit reasons
+        static boolean isRateLimited(int statusCode, GoogleJsonError error) {
+            if (statusCode == 429) {
+                return true;
+            }
+            return statusCode == 403 && error != null && error.getErrors() != null
+                    && error.getErrors().stream()
+                            .anyMatch(item -> "rateLimitExceeded".equals(item.getReason())
+                                    || "userRateLimitExceeded".equals(item.getReason()));
+        }
+    }
+}
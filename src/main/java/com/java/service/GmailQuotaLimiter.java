@@ -0,0 +1,91 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/* Per-user token bucket for the Gmail quota
+ *
+ * gmail allows about 250 quota units per user per second, every call costs
+ * units (messages.get 5, messages.list 5, history.list 2, getProfile 1)
+ * and a batch costs the sum of its calls
+ *
+ * callers reserve the units of a call before making it, when the bucket is
+ * empty the caller sleeps until the units are refilled, so one user's syncs
+ * never run into 429s and other users are not slowed down
+ */
+@Component
+public class GmailQuotaLimiter {
+
+    public static final int PROFILE_UNITS = 1;
+    public static final int HISTORY_LIST_UNITS = 2;
+    public static final int MESSAGES_LIST_UNITS = 5;
+    public static final int MESSAGES_GET_UNITS = 5;
+
+    // units per user per second, kept below gmail's 250 to leave room for other clients of the user
+    @Value("${gmail.quota.units-per-second:200}")
+    private double unitsPerSecond = 200;
+
+    // largest burst a user can spend at once
+    @Value("${gmail.quota.burst-units:250}")
+    private double burstUnits = 250;
+
+    private Cache<Long, TokenBucket> buckets;
+
+    @PostConstruct
+    void initBuckets() {
+        // an idle user's bucket is full again after a second, so it can be dropped
+        buckets = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).build();
+    }
+
+    /* Take units from the user's bucket, waiting for the refill when needed */
+    public void acquire(Long userId, int units) throws IOException {
+        long waitNanos = buckets.get(userId, id -> new TokenBucket(burstUnits, unitsPerSecond)).reserve(units);
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for gmail quota", e);
+        }
+    }
+
+    /* Bucket that may go into debt
+     * a reservation always succeeds and returns how long the caller has to wait,
+     * so concurrent callers queue up fairly instead of retrying
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double unitsPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double unitsPerSecond) {
+            this.capacity = capacity;
+            this.unitsPerNano = unitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized long reserve(int units) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * unitsPerNano);
+            lastRefill = now;
+
+            tokens -= units;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / unitsPerNano);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.java.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.java.model.GmailSyncState;
+import com.java.model.User;
+import com.java.repository.GmailSyncStateRepository;
+import com.java.repository.UserRepository;
+import com.java.service.GmailMessageFetcher.GmailFetchException;
+
+/* Syncs every connected Gmail account in the background
+ *
+ * each run walks the connected users page by page (keyset on id, never the
+ * whole table in memory) and hands every due user to the gmailSyncExecutor
+ * workers, at most maxInFlight syncs are queued or running at a time so the
+ * next page is only read when workers are free
+ *
+ * a user is due when
+ *   it was never synced, or its last sync is older than minInterval
+ *   and it is not backing off (nextAttemptAt in the future)
+ *
+ * failures back off exponentially per user (429s honour Retry-After), all of
+ * it lives in gmail_sync_state so a restarted node picks up where it left off
+ *
+ * with several nodes (gmail.sharding.enabled) a node only walks the users of
+ * the shards it holds a lease on, see ShardLeaseManager
+ */
+@Component
+public class GmailSyncScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailSyncScheduler.class);
+
+    // stored error messages are cut to the column size
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GmailSyncStateRepository syncStateRepository;
+
+    @Autowired
+    private GmailSyncService gmailSyncService;
+
+    @Autowired
+    private ShardLeaseManager leaseManager;
+
+    @Autowired
+    @Qualifier("gmailSyncExecutor")
+    private Executor gmailSyncExecutor;
+
+    // users read per query
+    @Value("${gmail.scheduler.page-size:200}")
+    private int pageSize = 200;
+
+    // syncs queued or running at once, a little above the worker count keeps workers busy
+    @Value("${gmail.scheduler.max-in-flight:16}")
+    private int maxInFlight = 16;
+
+    // a user is synced at most once per interval
+    @Value("${gmail.scheduler.min-interval-minutes:15}")
+    private long minIntervalMinutes = 15;
+
+    // first backoff after a failure, doubled for every further failure up to the max
+    @Value("${gmail.scheduler.backoff-base-seconds:60}")
+    private long backoffBaseSeconds = 60;
+
+    @Value("${gmail.scheduler.backoff-max-minutes:360}")
+    private long backoffMaxMinutes = 360;
+
+    /* One pass over all connected users
+     * fixedDelay, so the next pass only starts after this one is done
+     */
+    @Scheduled(fixedDelayString = "${gmail.scheduler.interval-ms:300000}",
+            initialDelayString = "${gmail.scheduler.initial-delay-ms:60000}")
+    public void syncAll() {
+
+        boolean sharded = leaseManager.isEnabled();
+        Set<Integer> shards = sharded ? leaseManager.ownedShards() : Set.of();
+        if (sharded && shards.isEmpty()) {
+            logger.debug("Node {} holds no shard leases, skipping the gmail sync pass", leaseManager.getNodeId());
+            return;
+        }
+
+        Semaphore slots = new Semaphore(maxInFlight);
+        AtomicInteger synced = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+
+        long afterId = 0;
+        List<User> users;
+
+        try {
+            do {
+                users = sharded
+                        ? userRepository.findGmailConnectedInShardsAfter(afterId, leaseManager.getShardCount(), shards,
+                                PageRequest.of(0, pageSize))
+                        : userRepository.findGmailConnectedAfter(afterId, PageRequest.of(0, pageSize));
+                if (users.isEmpty()) {
+                    break;
+                }
+
+                Map<Long, GmailSyncState> states = loadStates(users);
+                LocalDateTime now = LocalDateTime.now();
+
+                for (User user : users) {
+                    // the shard may have gone to another node during the pass
+                    if (sharded && !leaseManager.ownsUser(user.getId())) {
+                        skipped++;
+                        continue;
+                    }
+                    if (!isDue(states.get(user.getId()), now)) {
+                        skipped++;
+                        continue;
+                    }
+
+                    // blocks while maxInFlight syncs are pending, the workers pull users as they free up
+                    slots.acquire();
+                    try {
+                        gmailSyncExecutor.execute(() -> {
+                            try {
+                                if (syncOne(user)) {
+                                    synced.incrementAndGet();
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                            } finally {
+                                slots.release();
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        slots.release();
+                        throw e;
+                    }
+                }
+
+                afterId = users.get(users.size() - 1).getId();
+
+            } while (users.size() == pageSize);
+
+            // wait for the last syncs of this pass
+            slots.acquire(maxInFlight);
+            slots.release(maxInFlight);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Gmail sync pass interrupted");
+            return;
+        }
+
+        logger.info("Gmail sync pass: {} synced, {} failed, {} not due", synced.get(), failed.get(), skipped);
+    }
+
+    // true when the sync worked, failures are recorded as backoff for the user
+    boolean syncOne(User user) {
+        try {
+            gmailSyncService.syncUser(user);
+            return true;
+        } catch (Exception e) {
+            recordFailure(user.getId(), e);
+            return false;
+        }
+    }
+
+    boolean isDue(GmailSyncState state, LocalDateTime now) {
+        if (state == null) {
+            return true;
+        }
+        if (state.getNextAttemptAt() != null && now.isBefore(state.getNextAttemptAt())) {
+            return false;
+        }
+        return state.getLastSyncedAt() == null
+                || !state.getLastSyncedAt().isAfter(now.minusMinutes(minIntervalMinutes));
+    }
+
+    /* Push the next attempt of the user out
+     * base * 2^(failures - 1) with +-20% jitter so users that failed together
+     * do not retry together, a Retry-After from gmail wins when it is longer
+     */
+    void recordFailure(Long userId, Exception e) {
+
+        GmailSyncState state = syncStateRepository.findById(userId).orElseGet(() -> new GmailSyncState(userId));
+        int failures = state.getConsecutiveFailures() + 1;
+
+        Duration delay = backoff(failures);
+        Duration retryAfter = retryAfter(e);
+        if (retryAfter != null && retryAfter.compareTo(delay) > 0) {
+            delay = retryAfter;
+        }
+
+        state.setConsecutiveFailures(failures);
+        state.setNextAttemptAt(LocalDateTime.now().plus(delay));
+        state.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+        syncStateRepository.save(state);
+
+        if (isRateLimited(e)) {
+            logger.info("Gmail rate limited user {}, retrying in {}s", userId, delay.toSeconds());
+        } else {
+            logger.warn("Gmail sync failed for user {} ({} in a row), retrying in {}s", userId, failures,
+                    delay.toSeconds(), e);
+        }
+    }
+
+    Duration backoff(int failures) {
+        Duration max = Duration.ofMinutes(backoffMaxMinutes);
+        // cap the exponent, past 2^20 every delay is at the max anyway
+        long seconds = backoffBaseSeconds << Math.min(failures - 1, 20);
+        Duration delay = Duration.ofSeconds(seconds);
+        if (delay.compareTo(max) > 0) {
+            delay = max;
+        }
+
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delay.toMillis() * jitter));
+    }
+
+    private Map<Long, GmailSyncState> loadStates(List<User> users) {
+        Map<Long, GmailSyncState> states = new HashMap<>();
+        for (GmailSyncState state : syncStateRepository.findAllById(users.stream().map(User::getId).toList())) {
+            states.put(state.getUserId(), state);
+        }
+        return states;
+    }
+
+    /* 429, or 403 with one of gmail's rate limit reasons
+     * from a plain request, or from calls inside a batch (GmailFetchException)
+     */
+    private static boolean isRateLimited(Exception e) {
+        if (e instanceof GmailFetchException fetch) {
+            return fetch.isRateLimited();
+        }
+        if (e instanceof GoogleJsonResponseException response) {
+            return GmailFetchException.isRateLimited(response.getStatusCode(), response.getDetails());
+        }
+        return false;
+    }
+
+    // Retry-After in seconds from a rate limited response, null when there is none
+    private static Duration retryAfter(Exception e) {
+        if (!isRateLimited(e)) {
+            return null;
+        }
+        String header = e instanceof GmailFetchException fetch ? fetch.getRetryAfter()
+                : ((GoogleJsonResponseException) e).getHeaders().getRetryAfter();
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        } catch (NumberFormatException ignored) {
+            return null; // http date form, the exponential backoff is used instead
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,312 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.ListHistoryResponse;
+import com.google.api.services.gmail.model.ListMessagesResponse;
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePartHeader;
+import com.java.config.GmailConfig;
+import com.java.config.MetricsConfig;
+import com.java.dto.GmailSyncResult;
+import com.java.model.GmailSyncState;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.User;
+import com.java.repository.GmailSyncStateRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/* Imports job application emails from a user's Gmail inbox
+ *
+ * first sync (or expired checkpoint) -> bounded full scan of recent inbox messages
+ * every later sync -> only the messages added since the stored historyId
+ * (users.history.list), so a sync costs a few small calls instead of
+ * re-reading the whole inbox
+ *
+ * job emails become JobApplication rows with source = GMAIL and the
+ * gmail message id, so the same email is never imported twice
+ */
+@Service
+public class GmailSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailSyncService.class);
+
+    // "me" is the gmail alias for the user that owns the access token
+    private static final String ME = "me";
+
+    // headers the classifier needs, nothing else is downloaded
+    static final List<String> METADATA_HEADERS = List.of("From", "Subject", "Date");
+
+    // largest page gmail allows for history and message listing
+    private static final long PAGE_SIZE = 500L;
+
+    @Autowired
+    private GmailConfig gmailConfig;
+
+    @Autowired
+    private GmailSyncStateRepository syncStateRepository;
+
+    @Autowired
+    private GmailMessageDedupe messageDedupe;
+
+    @Autowired
+    private JobApplicationService jobApplicationService;
+
+    @Autowired
+    private JobEmailClassifier classifier;
+
+    @Autowired
+    private GmailMessageFetcher messageFetcher;
+
+    @Autowired
+    private GmailQuotaLimiter quotaLimiter;
+
+    // upper bound of messages read by a full scan
+    @Value("${gmail.sync.full-scan-max-messages:500}")
+    private int fullScanMaxMessages;
+
+    // gmail search used by the full scan to skip obviously unrelated mail
+    @Value("${gmail.sync.full-scan-query:newer_than:180d}")
+    private String fullScanQuery;
+
+    /* Sync one user
+     * reads the checkpoint, fetches only the new messages, imports job emails
+     * and stores the new checkpoint
+     */
+    @Timed(value = MetricsConfig.GMAIL_SYNC_TIMER, description = "Gmail sync of one user")
+    public GmailSyncResult syncUser(User user) throws IOException, GeneralSecurityException {
+
+        if (user.getGmailToken() == null || !Boolean.TRUE.equals(user.getGmailConnected())) {
+            throw new RuntimeException("Gmail is not connected for the user");
+        }
+
+        Gmail gmail = gmailConfig.getGmailService(user.getId(), user.getGmailToken());
+        GmailSyncState state = syncStateRepository.findById(user.getId())
+                .orElseGet(() -> new GmailSyncState(user.getId()));
+
+        MessageDelta delta = null;
+        if (state.getHistoryId() != null) {
+            delta = fetchHistoryDelta(user.getId(), gmail, state.getHistoryId());
+        }
+
+        boolean fullScan = delta == null;
+        if (fullScan) {
+            delta = fullScan(user.getId(), gmail);
+        }
+
+        int created = importMessages(gmail, user, delta.messageIds());
+
+        LocalDateTime now = LocalDateTime.now();
+        state.setHistoryId(delta.historyId());
+        state.setLastSyncedAt(now);
+        if (fullScan) {
+            state.setLastFullScanAt(now);
+        }
+        state.setMessagesImported(state.getMessagesImported() + created);
+        state.setConsecutiveFailures(0);
+        state.setNextAttemptAt(null);
+        state.setLastError(null);
+        syncStateRepository.save(state);
+
+        logger.info("Gmail sync for user {}: {} new messages, {} applications created, full scan: {}",
+                user.getId(), delta.messageIds().size(), created, fullScan);
+
+        return new GmailSyncResult(delta.messageIds().size(), created, fullScan);
+    }
+
+    /* Same sync in the background (@Async on the application task executor)
+     * a sync mostly waits on gmail, so in virtual thread mode this costs no platform thread
+     */
+    @Async
+    public CompletableFuture<GmailSyncResult> syncUserAsync(User user) {
+        try {
+            return CompletableFuture.completedFuture(syncUser(user));
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /* Messages added to the inbox after startHistoryId
+     * returns null when gmail no longer knows that history id (404),
+     * the caller then falls back to a full scan
+     */
+    MessageDelta fetchHistoryDelta(Long userId, Gmail gmail, BigInteger startHistoryId) throws IOException {
+
+        Set<String> messageIds = new LinkedHashSet<>();
+        BigInteger latestHistoryId = startHistoryId;
+        String pageToken = null;
+
+        try {
+            do {
+                quotaLimiter.acquire(userId, GmailQuotaLimiter.HISTORY_LIST_UNITS);
+                ListHistoryResponse response = gmail.users().history().list(ME)
+                        .setStartHistoryId(startHistoryId)
+                        .setHistoryTypes(List.of("messageAdded"))
+                        .setLabelId("INBOX")
+                        .setMaxResults(PAGE_SIZE)
+                        .setPageToken(pageToken)
+                        .execute();
+
+                if (response.getHistory() != null) {
+                    for (History history : response.getHistory()) {
+                        if (history.getMessagesAdded() == null) {
+                            continue;
+                        }
+                        for (HistoryMessageAdded added : history.getMessagesAdded()) {
+                            messageIds.add(added.getMessage().getId());
+                        }
+                    }
+                }
+
+                if (response.getHistoryId() != null) {
+                    latestHistoryId = response.getHistoryId();
+                }
+                pageToken = response.getNextPageToken();
+
+            } while (pageToken != null);
+
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 404) {
+                logger.info("Gmail history id {} expired, falling back to a full scan", startHistoryId);
+                return null;
+            }
+            throw e;
+        }
+
+        return new MessageDelta(new ArrayList<>(messageIds), latestHistoryId);
+    }
+
+    /* Bounded full scan of the inbox
+     * the profile history id is read first so nothing that arrives
+     * during the scan is missed by the next incremental sync
+     */
+    MessageDelta fullScan(Long userId, Gmail gmail) throws IOException {
+
+        quotaLimiter.acquire(userId, GmailQuotaLimiter.PROFILE_UNITS);
+        BigInteger historyId = gmail.users().getProfile(ME).execute().getHistoryId();
+
+        List<String> messageIds = new ArrayList<>();
+        String pageToken = null;
+
+        do {
+            long remaining = fullScanMaxMessages - messageIds.size();
+            quotaLimiter.acquire(userId, GmailQuotaLimiter.MESSAGES_LIST_UNITS);
+            ListMessagesResponse response = gmail.users().messages().list(ME)
+                    .setQ(fullScanQuery)
+                    .setLabelIds(List.of("INBOX"))
+                    .setMaxResults(Math.min(PAGE_SIZE, remaining))
+                    .setPageToken(pageToken)
+                    .execute();
+
+            if (response.getMessages() != null) {
+                for (Message message : response.getMessages()) {
+                    if (messageIds.size() >= fullScanMaxMessages) {
+                        break;
+                    }
+                    messageIds.add(message.getId());
+                }
+            }
+            pageToken = response.getNextPageToken();
+
+        } while (pageToken != null && messageIds.size() < fullScanMaxMessages);
+
+        return new MessageDelta(messageIds, historyId);
+    }
+
+    // download the headers of the new messages in batches and store the job emails
+    private int importMessages(Gmail gmail, User user, List<String> messageIds) throws IOException {
+
+        // one set based check for the whole batch instead of one query per message
+        Set<String> known = messageDedupe.findKnown(user.getId(), messageIds);
+        List<String> newIds = new ArrayList<>(messageIds.size());
+        for (String messageId : messageIds) {
+            if (!known.contains(messageId)) {
+                newIds.add(messageId);
+            }
+        }
+
+        List<JobApplication> applications = new ArrayList<>();
+        List<String> importedIds = new ArrayList<>();
+        for (Message message : messageFetcher.fetchMetadata(user.getId(), gmail, newIds, METADATA_HEADERS)) {
+            Optional<JobApplication> application = toApplication(user, message);
+            if (application.isPresent()) {
+                applications.add(application.get());
+                importedIds.add(message.getId());
+            }
+        }
+
+        // all job emails of this sync go in as one batched insert, messages stored already
+        // (or repeated in the batch) are skipped there and not counted
+        int created = 0;
+        if (!applications.isEmpty()) {
+            created = jobApplicationService.createApplications(applications, user);
+        }
+
+        messageDedupe.recordImported(user.getId(), importedIds);
+        return created;
+    }
+
+    // turns a job email into an application, empty for anything else
+    Optional<JobApplication> toApplication(User user, Message message) {
+
+        String from = header(message, "From");
+        String subject = header(message, "Subject");
+
+        return classifier.classify(from, subject, message.getSnippet()).map(email -> {
+            JobApplication application = new JobApplication(user, email.companyName(), email.position(),
+                    email.status(), ApplicationSource.GMAIL);
+            application.setGmailMessageId(message.getId());
+            application.setContactPerson(email.contactPerson());
+            application.setContactEmail(email.contactEmail());
+
+            if (subject != null) {
+                application.setNotes(subject.length() > 500 ? subject.substring(0, 500) : subject);
+            }
+            if (message.getInternalDate() != null) {
+                application.setAppliedDate(Instant.ofEpochMilli(message.getInternalDate())
+                        .atZone(ZoneId.systemDefault()).toLocalDate());
+            }
+            return application;
+        });
+    }
+
+    private static String header(Message message, String name) {
+        if (message.getPayload() == null || message.getPayload().getHeaders() == null) {
+            return null;
+        }
+
+        for (MessagePartHeader header : message.getPayload().getHeaders()) {
+            if (name.equalsIgnoreCase(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /* New message ids and the history id to store as the next checkpoint */
+    record MessageDelta(List<String> messageIds, BigInteger historyId) {
+    }
+}
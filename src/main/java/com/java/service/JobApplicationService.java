@@ -1,18 +1,46 @@
 package com.java.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import com.java.config.MetricsConfig;
+import com.java.dto.ApplicationCursor;
+import com.java.dto.ApplicationPatch;
+import com.java.dto.ApplicationPage;
+import com.java.dto.ApplicationSearchResult;
+import com.java.dto.ApplicationSummary;
+import com.java.dto.DashboardStats;
 import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
 import com.java.model.User;
 import com.java.repository.JobApplicationRepository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+
 /* Service layer sits between controller(api/ui) and repository(db) 
  * 
  * @Service -> mark spring as service component so that spring 
@@ -26,28 +54,109 @@ import com.java.repository.JobApplicationRepository;
  */
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, description = "Service method latency")
 public class JobApplicationService {
 
+    // largest page a client can ask for
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // page size used when the caller does not ask for one
+    private static final int DEFAULT_SEARCH_SIZE = 20;
+
+    // rows kept in the persistence context before a bulk insert flushes and clears it
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    // ids per IN query, stays below the parameter limits of mysql and h2
+    private static final int IN_CHUNK_SIZE = 1000;
+
     // Inject the repository so that service can iteracting with DB
     @Autowired
     private JobApplicationRepository jobApplicationRepository;
 
+    // in-memory search index, updated on every create, update and delete
+    @Autowired
+    private ApplicationSearchIndex searchIndex;
+
+    // per-user counters, changed in the same transaction as the applications
+    @Autowired
+    private ApplicationStatsService statsService;
+
+    // imported gmail messages per user, forgotten when applications are deleted
+    @Autowired
+    private GmailMessageDedupe messageDedupe;
+
+    // used to detach streamed rows so exports do not keep every entity in memory,
+    // for bulk inserts and to flush updates early
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // Method to get all job application sorted by created date
     public List<JobApplication> getAllJobApplicationUser(User user) {
 
-        return jobApplicationRepository.findByUserOrderedByCreatedAtDesc(user);
+        return jobApplicationRepository.findByUserOrderByCreatedAtDescIdDesc(user);
+    }
+
+    /*
+     * Fetch one page of a user's applications, newest first
+     * cursor is the nextCursor of the previous page (null for the first page)
+     * uses keyset pagination so page 1000 costs the same as page 1
+     */
+    public ApplicationPage getApplicationPage(User user, String cursor, int size) {
+
+        Pageable pageable = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+
+        Slice<JobApplication> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = jobApplicationRepository.findFirstPageByUser(user, pageable);
+        } else {
+            ApplicationCursor position = ApplicationCursor.decode(cursor);
+            slice = jobApplicationRepository.findPageAfterCursor(user, position.createdAt(), position.id(), pageable);
+        }
+
+        List<JobApplication> items = slice.getContent();
+        String nextCursor = null;
+
+        if (slice.hasNext() && !items.isEmpty()) {
+            JobApplication last = items.get(items.size() - 1);
+            nextCursor = new ApplicationCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new ApplicationPage(items, nextCursor);
+    }
+
+    /*
+     * Walk over every application of a user without loading them into a list (used by exports)
+     * each row is handed to the consumer and then detached so the persistence
+     * context does not grow with the size of the history
+     * returns the number of applications visited
+     */
+    @Transactional(readOnly = true)
+    public long forEachApplication(User user, Consumer<JobApplication> consumer) {
+
+        long count = 0;
+        try (Stream<JobApplication> applications = jobApplicationRepository.streamByUser(user)) {
+            Iterator<JobApplication> iterator = applications.iterator();
+            while (iterator.hasNext()) {
+                JobApplication application = iterator.next();
+                consumer.accept(application);
+                entityManager.detach(application);
+                count++;
+            }
+        }
+
+        return count;
     }
 
     // Method to fetch an application by id but returns only if it belongs to a user
-    // (security check)
+    // (security check done in the query, the user itself is never loaded)
     public Optional<JobApplication> getJobApplicationById(Long id, User user) {
 
-        return jobApplicationRepository.findById(id)
-                .filter(app -> app.getId().equals(user.getId()));
+        return jobApplicationRepository.findByIdAndUserId(id, user.getId());
     }
 
     // create a jobApplication and set it to a user with applied date, if null
     // default date is today and save it to db
+    @Transactional
     public JobApplication createApplication(JobApplication application, User user) {
 
         application.setUser(user);
@@ -56,18 +165,168 @@ public class JobApplicationService {
             application.setAppliedDate(LocalDate.now());
         }
 
-        return jobApplicationRepository.save(application);
+        JobApplication saved = jobApplicationRepository.save(application);
+        statsService.applicationsAdded(user.getId(), List.of(saved));
+        searchIndex.index(saved);
+        return saved;
+    }
+
+    /*
+     * Create many applications at once (gmail backfills, csv imports)
+     * rows are inserted with jdbc batching (hibernate.jdbc.batch_size) and the
+     * persistence context is flushed and cleared every BULK_CHUNK_SIZE rows
+     * so memory stays flat no matter how many rows come in
+     *
+     * the owner is only referenced by id, it is never loaded
+     * gmail messages the user already has are skipped, one duplicate would
+     * otherwise fail the unique (user_id, gmail_message_id) key and the whole batch
+     * returns the number of applications created
+     */
+    @Transactional
+    public int createApplications(List<JobApplication> applications, User user) {
+
+        User owner = entityManager.getReference(User.class, user.getId());
+        LocalDate today = LocalDate.now();
+        List<JobApplication> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        List<JobApplication> created = withoutKnownGmailMessages(applications, user.getId());
+
+        for (JobApplication application : created) {
+            application.setUser(owner);
+            if (application.getAppliedDate() == null) {
+                application.setAppliedDate(today);
+            }
+
+            entityManager.persist(application);
+            chunk.add(application);
+
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                flushChunk(chunk);
+            }
+        }
+        flushChunk(chunk);
+
+        // counters of the whole list in one go, a few updates instead of one per row
+        statsService.applicationsAdded(user.getId(), created);
+
+        return created.size();
+    }
+
+    /*
+     * Create the rows of an import file (csv, ndjson), importing the same file twice
+     * stores nothing the second time
+     * rows of gmail messages are matched by gmailMessageId (see createApplications),
+     * all others by company, position and applied date, against the stored
+     * applications and the rows before them in the list
+     * rows without an applied date get the day they are stored as their date, so on a
+     * later import they are matched by company and position against the applications
+     * whose applied date is their creation day, not against the day of that import
+     * returns the number of applications created
+     */
+    @Transactional
+    public int importApplications(List<JobApplication> applications, User user) {
+
+        Set<LocalDate> dates = new HashSet<>();
+        Set<String> undatedCompanies = new HashSet<>();
+        for (JobApplication application : applications) {
+            if (application.getGmailMessageId() != null) {
+                continue;
+            }
+            if (application.getAppliedDate() == null) {
+                undatedCompanies.add(application.getCompanyName());
+            } else {
+                dates.add(application.getAppliedDate());
+            }
+        }
+
+        Set<List<Object>> stored = new HashSet<>();
+        List<LocalDate> dateList = List.copyOf(dates);
+        for (int from = 0; from < dateList.size(); from += IN_CHUNK_SIZE) {
+            for (Object[] key : jobApplicationRepository.findImportKeys(user.getId(),
+                    dateList.subList(from, Math.min(from + IN_CHUNK_SIZE, dateList.size())))) {
+                stored.add(Arrays.asList(key));
+            }
+        }
+
+        // a null date in the key stands for "applied date defaulted to the creation day"
+        List<String> companyList = List.copyOf(undatedCompanies);
+        for (int from = 0; from < companyList.size(); from += IN_CHUNK_SIZE) {
+            for (Object[] key : jobApplicationRepository.findUndatedImportKeys(user.getId(),
+                    companyList.subList(from, Math.min(from + IN_CHUNK_SIZE, companyList.size())))) {
+                stored.add(Arrays.asList(key[0], key[1], null));
+            }
+        }
+
+        List<JobApplication> fresh = new ArrayList<>(applications.size());
+        for (JobApplication application : applications) {
+            if (application.getGmailMessageId() != null || stored.add(Arrays.asList(application.getCompanyName(),
+                    application.getPosition(), application.getAppliedDate()))) {
+                fresh.add(application);
+            }
+        }
+
+        return createApplications(fresh, user);
+    }
+
+    // drops applications of gmail messages that are stored already or repeated in the list,
+    // one IN query per IN_CHUNK_SIZE message ids, none when the list has no gmail messages
+    private List<JobApplication> withoutKnownGmailMessages(List<JobApplication> applications, Long userId) {
+
+        Set<String> messageIds = new LinkedHashSet<>();
+        for (JobApplication application : applications) {
+            if (application.getGmailMessageId() != null) {
+                messageIds.add(application.getGmailMessageId());
+            }
+        }
+        if (messageIds.isEmpty()) {
+            return applications;
+        }
+
+        List<String> idList = List.copyOf(messageIds);
+        Set<String> seen = new HashSet<>();
+        for (int from = 0; from < idList.size(); from += IN_CHUNK_SIZE) {
+            seen.addAll(jobApplicationRepository.findKnownGmailMessageIds(userId,
+                    idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size()))));
+        }
+
+        List<JobApplication> created = new ArrayList<>(applications.size());
+        for (JobApplication application : applications) {
+            String messageId = application.getGmailMessageId();
+            if (messageId == null || seen.add(messageId)) {
+                created.add(application);
+            }
+        }
+        return created;
+    }
+
+    // send the pending inserts as jdbc batches, then forget the rows
+    private void flushChunk(List<JobApplication> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        entityManager.flush();
+        for (JobApplication application : chunk) {
+            searchIndex.index(application);
+        }
+        entityManager.clear();
+        chunk.clear();
     }
 
     /*
      * Updating an existing application only if it belongs to the user
+     * when the application carries a version it must still be the current one,
+     * otherwise ApplicationConflictException (409)
      */
+    @Transactional
     public JobApplication updateApplication(Long id, JobApplication application, User user) {
 
         Optional<JobApplication> existingApplication = getJobApplicationById(id, user);
 
         if (existingApplication.isPresent()) {
             JobApplication app = existingApplication.get();
+            checkVersion(app, application.getVersion());
+            ApplicationStatus oldStatus = app.getStatus();
+            ApplicationSource oldSource = app.getSource();
 
             app.setCompanyName(application.getCompanyName());
             app.setPosition(application.getPosition());
@@ -83,52 +342,195 @@ public class JobApplicationService {
             app.setInterviewDate(application.getInterviewDate());
             app.setResponseDate(application.getResponseDate());
 
-            return jobApplicationRepository.save(app);
+            flushUpdate(app);
+            statsService.applicationChanged(user.getId(), oldStatus, oldSource, app);
+            searchIndex.index(app);
+            return app;
         }
 
         throw new RuntimeException("Application not found or access is denied");
     }
 
-    /* Delete an application only when user own it */
+    /*
+     * Partial update (PATCH), only the fields set in the patch are changed
+     * the entity is managed so hibernate writes just the changed columns
+     * (@DynamicUpdate) with "WHERE id = ? AND version = ?"
+     *
+     * conflicts with ApplicationConflictException (409) when the patch version is
+     * not the current one or when another edit commits between load and update
+     */
+    @Transactional
+    public JobApplication patchApplication(Long id, ApplicationPatch patch, User user) {
+
+        JobApplication app = getJobApplicationById(id, user)
+                .orElseThrow(() -> new RuntimeException("Application not found or access is denied"));
+
+        checkVersion(app, patch.getVersion());
+        ApplicationStatus oldStatus = app.getStatus();
+        ApplicationSource oldSource = app.getSource();
+
+        if (patch.getCompanyName() != null) {
+            app.setCompanyName(patch.getCompanyName());
+        }
+        if (patch.getPosition() != null) {
+            app.setPosition(patch.getPosition());
+        }
+        if (patch.getStatus() != null) {
+            app.setStatus(patch.getStatus());
+        }
+        if (patch.getAppliedDate() != null) {
+            app.setAppliedDate(patch.getAppliedDate());
+        }
+        if (patch.getJobUrl() != null) {
+            app.setJobUrl(patch.getJobUrl());
+        }
+        if (patch.getNotes() != null) {
+            app.setNotes(patch.getNotes());
+        }
+        if (patch.getLocation() != null) {
+            app.setLocation(patch.getLocation());
+        }
+        if (patch.getJobType() != null) {
+            app.setJobType(patch.getJobType());
+        }
+        if (patch.getSalaryRange() != null) {
+            app.setSalaryRange(patch.getSalaryRange());
+        }
+        if (patch.getResponseDate() != null) {
+            app.setResponseDate(patch.getResponseDate());
+        }
+        if (patch.getInterviewDate() != null) {
+            app.setInterviewDate(patch.getInterviewDate());
+        }
+        if (patch.getContactPerson() != null) {
+            app.setContactPerson(patch.getContactPerson());
+        }
+        if (patch.getContactEmail() != null) {
+            app.setContactEmail(patch.getContactEmail());
+        }
+
+        flushUpdate(app);
+        statsService.applicationChanged(user.getId(), oldStatus, oldSource, app);
+        searchIndex.index(app);
+        return app;
+    }
+
+    // the client edited an older version than the one stored
+    private static void checkVersion(JobApplication app, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(app.getVersion())) {
+            throw new ApplicationConflictException(app.getId(), expectedVersion, app.getVersion());
+        }
+    }
+
+    // write the update now, a version mismatch in the database becomes a conflict here
+    private void flushUpdate(JobApplication app) {
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            throw new ApplicationConflictException(app.getId(), e);
+        }
+    }
+
+    /* Delete an application only when user own it
+     * ownership is part of the delete statement, the application is not loaded
+     */
+    @Transactional
     public void deleteApplication(Long id, User user) {
-        Optional<JobApplication> application = getJobApplicationById(id, user);
+        List<Object[]> counts = jobApplicationRepository.countByStatusAndSourceForIds(List.of(id), user.getId());
 
-        if (application.isPresent()) {
-            jobApplicationRepository.delete(application.get());
-        } else {
+        if (jobApplicationRepository.deleteByIdAndUserId(id, user.getId()) == 0) {
             throw new RuntimeException("Application not found");
         }
+
+        statsService.applicationsRemoved(user.getId(), counts);
+        searchIndex.remove(user.getId(), id);
+        messageDedupe.evict(user.getId());
+    }
+
+    /* Delete many applications of the user, ids of other users are skipped
+     * one grouped count and one delete per IN_CHUNK_SIZE ids
+     * returns the number of deleted applications
+     */
+    @Transactional
+    public int deleteApplications(Collection<Long> ids, User user) {
+
+        List<Long> idList = List.copyOf(ids);
+        int deleted = 0;
+
+        for (int from = 0; from < idList.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + IN_CHUNK_SIZE, idList.size()));
+
+            List<Object[]> counts = jobApplicationRepository.countByStatusAndSourceForIds(chunk, user.getId());
+            deleted += jobApplicationRepository.deleteByIdInAndUserId(chunk, user.getId());
+            statsService.applicationsRemoved(user.getId(), counts);
+        }
+
+        // removing an id the user does not own is a no-op in their index
+        for (Long id : idList) {
+            searchIndex.remove(user.getId(), id);
+        }
+        messageDedupe.evict(user.getId());
+
+        return deleted;
     }
 
-    // Fetch application by status applied, offer , interviewed
-    public List<JobApplication> getApplicationByStatus(User user, JobApplication.ApplicationStatus status) {
+    // Fetch application by status applied, offer , interviewed (read-only summaries)
+    public List<ApplicationSummary> getApplicationByStatus(User user, JobApplication.ApplicationStatus status) {
 
         return jobApplicationRepository.findByUserAndStatus(user, status);
     }
 
     // Fetch application between two dates (useful for reporting)
-    public List<JobApplication> getApplicationBetweenDate(User user, LocalDate starDate, LocalDate endDate) {
+    public List<ApplicationSummary> getApplicationBetweenDate(User user, LocalDate starDate, LocalDate endDate) {
 
         return jobApplicationRepository.findByUserAndAppliedDate(user, starDate, endDate);
 
     }
 
-    // searching job application by companyName or position
+    // searching job application by companyName or position, first page of ranked results
     public List<JobApplication> searchApplication(User user, String query) {
 
-        // find all application by companyName
-        List<JobApplication> companyResults = jobApplicationRepository.findByUserCompanyName(user, query);
+        return searchApplication(user, query, 0, DEFAULT_SEARCH_SIZE).items();
 
-        // find all application by position
-        List<JobApplication> positionResults = jobApplicationRepository.findByUserPosition(user, query);
+    }
 
-        // combine both result
-        companyResults.addAll(positionResults);
+    /*
+     * Search a user's applications through the in-memory search index
+     * matches companyName, position, location, notes and contactPerson
+     * with prefix and typo tolerant matching, best matches first
+     *
+     * the index only returns ids, the page is then loaded in one query
+     * and put back in ranked order
+     */
+    public ApplicationSearchResult searchApplication(User user, String query, int page, int size) {
 
-        // remove duplication if some application match both companyName and position
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
 
-        return companyResults.stream().distinct().toList();
+        // first search of this user builds their index
+        if (!searchIndex.isLoaded(user.getId())) {
+            searchIndex.load(user);
+        }
 
+        ApplicationSearchIndex.SearchHits hits = searchIndex.search(user.getId(), query, pageNumber, pageSize);
+        if (hits.ids().isEmpty()) {
+            return new ApplicationSearchResult(List.of(), hits.total(), pageNumber, pageSize);
+        }
+
+        Map<Long, JobApplication> byId = new HashMap<>();
+        for (JobApplication application : jobApplicationRepository.findAllById(hits.ids())) {
+            byId.put(application.getId(), application);
+        }
+
+        List<JobApplication> items = new ArrayList<>(hits.ids().size());
+        for (Long id : hits.ids()) {
+            JobApplication application = byId.get(id);
+            if (application != null) {
+                items.add(application);
+            }
+        }
+
+        return new ApplicationSearchResult(items, hits.total(), pageNumber, pageSize);
     }
 
     /*
@@ -139,75 +541,76 @@ public class JobApplicationService {
      * recent application in last 30 days
      * upcoming interviews
      * Pending offers
+     *
+     * only two queries are used, one read of the user's stored counters
+     * and one query that reads summaries of all the applications the dashboard lists
      */
-    public Map<String, Object> getApplicationStats(User user) {
-
-        // first create a hashmap to store all the details of stats
-        Map<String, Object> stats = new HashMap<>();
-
-        // get count of job application
-        long totalcount = jobApplicationRepository.countApplicationByUser(user);
-        stats.put("TotalApplication", totalcount);
-
-
-        // status breakdown
-        Map<String, Long> statusBreak = new HashMap<>();
-        for (JobApplication.ApplicationStatus status : JobApplication.ApplicationStatus.values()) {
-            Long count = jobApplicationRepository.countApplicationByStatus(user, status);
-            statusBreak.put(status.name(), count);
-        }
-        stats.put("status", statusBreak);
-
-
-        // source breakdown
-        List<Object[]> source = jobApplicationRepository.getSourceStatsByUser(user);
-        // to store the source individuals
-        Map<String, Long> sourceBreak = new HashMap<>();
-        for (Object[] row : source) {
-            sourceBreak.put(row[0].toString(), (Long) row[1]);
-        }
-        stats.put("sources", sourceBreak);
-
-
-        // recent application(last 30 days)
-        LocalDate thirtydaysAgo = LocalDate.now().minusDays(30);
-        List<JobApplication> recentApplication = jobApplicationRepository.findByUserAndAppliedDate(user, thirtydaysAgo,
-                LocalDate.now());
-        stats.put("RecentApplications", recentApplication);
-
-
-        // upcoming interviews
-        List<JobApplication> upcomingInterview = jobApplicationRepository.findUpcomingInterviewByUser(user);
-        stats.put("upcomingInterview", upcomingInterview);
-
-
-        // pending offers
-        List<JobApplication> pendingOffers = jobApplicationRepository.findPendingOffersByUser(user);
-        stats.put("PendingOffers", pendingOffers);
-
-        return stats;
+    public DashboardStats getApplicationStats(User user) {
+
+        // total, status breakdown and source breakdown from the pre-computed counters
+        ApplicationStatsService.Counts counts = statsService.getCounts(user.getId());
+
+        // recent applications (last 30 days), upcoming interviews and pending offers in one query
+        LocalDate today = LocalDate.now();
+        LocalDate thirtydaysAgo = today.minusDays(30);
+        List<ApplicationSummary> dashboardApps = jobApplicationRepository.findDashboardApplications(user, thirtydaysAgo,
+                today, ApplicationStatus.OFFER_RECEIVED);
+
+        List<ApplicationSummary> recentApplication = dashboardApps.stream()
+                .filter(app -> app.appliedDate() != null
+                        && !app.appliedDate().isBefore(thirtydaysAgo)
+                        && !app.appliedDate().isAfter(today))
+                .sorted(Comparator.comparing(ApplicationSummary::appliedDate).reversed())
+                .toList();
+
+        List<ApplicationSummary> upcomingInterview = dashboardApps.stream()
+                .filter(app -> app.interviewDate() != null && !app.interviewDate().isBefore(today))
+                .sorted(Comparator.comparing(ApplicationSummary::interviewDate))
+                .toList();
+
+        List<ApplicationSummary> pendingOffers = dashboardApps.stream()
+                .filter(app -> app.status() == ApplicationStatus.OFFER_RECEIVED)
+                .sorted(Comparator.comparing(ApplicationSummary::updatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+
+        return new DashboardStats(counts.total(), counts.byStatus(), counts.bySource(),
+                recentApplication, upcomingInterview, pendingOffers);
 
     }
 
     // fetch application based on job source (like Indeed, Linkeldin)
-    public List<JobApplication> getApplicationBySource(User user, JobApplication.ApplicationSource source){
+    public List<ApplicationSummary> getApplicationBySource(User user, JobApplication.ApplicationSource source){
         return jobApplicationRepository.findByUserAndSource(user, source);
     }
 
-    // utility methods to count total Application
+    // utility methods to count total Application, read from the stored counter
     public long getTotalApplication(User user){
-      return  jobApplicationRepository.countApplicationByUser(user);
+      return statsService.getTotal(user.getId());
     }
 
-    // utility method for count application by status
+    // utility method for count application by status, read from the stored counter
     public long countApplicationByStatus(User user, JobApplication.ApplicationStatus status){
-        return jobApplicationRepository.countApplicationByStatus(user, status);
+        return statsService.getStatusCount(user.getId(), status);
+    }
+
+    // Fetches most recent N application of a user, the limit is applied in SQL
+    // no limit (0 or less) is an empty list, PageRequest does not take it
+    public List<ApplicationSummary> getRecentApplication(User user, int limit){
+      if (limit <= 0) {
+        return List.of();
+      }
+      return jobApplicationRepository.findRecentSummaries(user, PageRequest.of(0, limit));
+    }
+
+    // upcoming interviews, soonest first
+    public List<ApplicationSummary> getUpcomingInterviews(User user){
+      return jobApplicationRepository.findUpcomingInterviewByUser(user);
     }
 
-    // Fetches most recent N application of a user 
-    public List<JobApplication> getRecentApplication(User user, int limit){
-      List<JobApplication> allApps  =  jobApplicationRepository.findByUserOrderedByCreatedAtDesc(user);
-      return allApps.stream().limit(limit).toList();
+    // offers waiting for an answer, most recently updated first
+    public List<ApplicationSummary> getPendingOffers(User user){
+      return jobApplicationRepository.findPendingOffersByUser(user, ApplicationStatus.OFFER_RECEIVED);
     }
 
 }
@@ -0,0 +1,145 @@
+package com.java.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.java.model.JobApplication.ApplicationStatus;
+
+/* Decides if an email is about a job application and pulls out
+ * the company, position and status from its headers
+ *
+ * only uses From, Subject and the snippet so it works with
+ * format=metadata messages (no body download needed)
+ */
+@Component
+public class JobEmailClassifier {
+
+    // words that make an email look job related
+    private static final List<String> JOB_KEYWORDS = List.of(
+            "application", "applied", "applying", "interview", "offer", "position",
+            "role", "candidate", "candidacy", "recruit", "hiring", "job");
+
+    private static final List<String> REJECTION_KEYWORDS = List.of(
+            "unfortunately", "not moving forward", "not be moving forward", "regret",
+            "other candidates", "not selected");
+
+    private static final List<String> REVIEW_KEYWORDS = List.of("under review", "reviewing", "in review");
+
+    // words in a sender name that are not part of the company name
+    private static final Pattern SENDER_NOISE = Pattern.compile(
+            "(?i)\\b(careers?|recruiting|recruitment|talent( acquisition)?|jobs?|hiring|team|hr|no-?reply|notifications?)\\b");
+
+    // "Your application for Backend Engineer", "for the Backend Engineer position/role"
+    private static final List<Pattern> POSITION_PATTERNS = List.of(
+            Pattern.compile("(?i)for the (.+?) (?:position|role|opening)"),
+            Pattern.compile("(?i)application (?:for|to) (?:the )?(.+?)(?: at | with | - |$)"),
+            Pattern.compile("(?i)interview (?:for|invitation for) (?:the )?(.+?)(?: at | with | - |$)"),
+            Pattern.compile("(?i)offer (?:for|letter for) (?:the )?(.+?)(?: at | with | - |$)"));
+
+    // "Name <address>" or just "address"
+    private static final Pattern FROM_PATTERN = Pattern.compile("^\\s*\"?([^\"<]*?)\"?\\s*<([^>]+)>\\s*$");
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_CONTACT_LENGTH = 200;
+
+    /* Classify an email
+     * returns empty when the email does not look like a job application email
+     */
+    public Optional<ClassifiedEmail> classify(String from, String subject, String snippet) {
+        String text = ((subject == null ? "" : subject) + " " + (snippet == null ? "" : snippet))
+                .toLowerCase(Locale.ROOT);
+
+        if (JOB_KEYWORDS.stream().noneMatch(text::contains)) {
+            return Optional.empty();
+        }
+
+        String senderName = null;
+        String senderEmail = from;
+        if (from != null) {
+            Matcher matcher = FROM_PATTERN.matcher(from);
+            if (matcher.matches()) {
+                senderName = matcher.group(1).trim();
+                senderEmail = matcher.group(2).trim();
+            }
+        }
+
+        String company = companyName(senderName, senderEmail);
+        if (company == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ClassifiedEmail(
+                truncate(company, MAX_NAME_LENGTH),
+                truncate(position(subject), MAX_NAME_LENGTH),
+                status(text),
+                truncate(senderName == null || senderName.isBlank() ? null : senderName, MAX_CONTACT_LENGTH),
+                senderEmail));
+    }
+
+    // most specific signal wins, an offer email often also mentions the interview
+    private ApplicationStatus status(String text) {
+        if (text.contains("offer")) {
+            return ApplicationStatus.OFFER_RECEIVED;
+        }
+        if (REJECTION_KEYWORDS.stream().anyMatch(text::contains)) {
+            return ApplicationStatus.REJECTED;
+        }
+        if (text.contains("interview")) {
+            return ApplicationStatus.INTERVIEW_SCHEDULED;
+        }
+        if (REVIEW_KEYWORDS.stream().anyMatch(text::contains)) {
+            return ApplicationStatus.UNDER_REVIEW;
+        }
+        return ApplicationStatus.APPLIED;
+    }
+
+    private String position(String subject) {
+        if (subject != null) {
+            for (Pattern pattern : POSITION_PATTERNS) {
+                Matcher matcher = pattern.matcher(subject);
+                if (matcher.find() && !matcher.group(1).isBlank()) {
+                    return matcher.group(1).trim();
+                }
+            }
+        }
+        return "Unknown position";
+    }
+
+    /* company from the sender name ("Acme Careers" -> "Acme")
+     * falls back to the email domain (jobs@acme.com -> "Acme")
+     */
+    private String companyName(String senderName, String senderEmail) {
+        if (senderName != null) {
+            String cleaned = SENDER_NOISE.matcher(senderName).replaceAll(" ").replaceAll("\\s+", " ").trim();
+            if (!cleaned.isEmpty()) {
+                return cleaned;
+            }
+        }
+
+        if (senderEmail == null || senderEmail.indexOf('@') < 0) {
+            return null;
+        }
+
+        String[] labels = senderEmail.substring(senderEmail.indexOf('@') + 1).split("\\.");
+        if (labels.length < 2) {
+            return null;
+        }
+
+        String label = labels[labels.length - 2];
+        return label.isEmpty() ? null : Character.toUpperCase(label.charAt(0)) + label.substring(1);
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    /* What the classifier found in a job email */
+    public record ClassifiedEmail(String companyName, String position, ApplicationStatus status,
+            String contactPerson, String contactEmail) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.java.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.java.model.SyncNode;
+import com.java.model.SyncShardLease;
+import com.java.repository.SyncNodeRepository;
+import com.java.repository.SyncShardLeaseRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/* Splits the gmail sync between the running nodes with leases in the database
+ *
+ * users are put into a fixed number of shards (MOD(user id, shards)), every
+ * shard has a row in sync_shard_leases and GmailSyncScheduler only syncs the
+ * users of shards this node holds an unexpired lease on
+ *
+ * every heartbeat the node
+ *   marks itself alive in sync_nodes
+ *   renews its own leases (leaseTtl from now)
+ *   hands shards back when it holds more than its share,
+ *   or claims free and expired shards while it holds less
+ *
+ * the share is shards / live nodes, so a new node gets shards once the others
+ * gave some back (one or two heartbeats) and the shards of a node that died
+ * are taken over by the rest as soon as its leases expire
+ *
+ * claims are conditional updates, when two nodes go for the same shard only
+ * one of them changes the row, node clocks have to agree to well within leaseTtl
+ *
+ * shards this node gave back or lost (leases ran out) are published as a
+ * ShardsReleased event, per-user state kept for those users is stale from then on
+ */
+@Component
+public class ShardLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardLeaseManager.class);
+
+    @Autowired
+    private SyncNodeRepository nodeRepository;
+
+    @Autowired
+    private SyncShardLeaseRepository leaseRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // off -> this is the only node and it syncs every user
+    @Value("${gmail.sharding.enabled:false}")
+    private boolean enabled;
+
+    // fixed for the whole cluster, changing it moves users between shards
+    @Value("${gmail.sharding.shards:16}")
+    private int shards = 16;
+
+    // a lease runs out this long after the last heartbeat of its owner, a few heartbeats worth
+    @Value("${gmail.sharding.lease-ttl-seconds:30}")
+    private long leaseTtlSeconds = 30;
+
+    // blank -> application name plus a random suffix, unique per start
+    @Value("${gmail.sharding.node-id:}")
+    private String nodeId;
+
+    @Value("${spring.application.name:jobtracker}")
+    private String applicationName;
+
+    private Clock clock = Clock.systemUTC();
+
+    private boolean shardRowsCreated;
+
+    // shards held after the last heartbeat and until when the leases are valid
+    private volatile Set<Integer> ownedShards = Set.of();
+    private volatile LocalDateTime ownedUntil = LocalDateTime.MIN;
+
+    @PostConstruct
+    void initNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = applicationName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gmail.sharding.heartbeat-ms:10000}")
+    public synchronized void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            rebalance();
+        } catch (DataAccessException e) {
+            // the leases we have stay valid until ownedUntil, after that this node stops syncing
+            logger.warn("Shard lease heartbeat of node {} failed", nodeId, e);
+        }
+    }
+
+    private void rebalance() {
+
+        ensureShardRows();
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plusSeconds(leaseTtlSeconds);
+
+        if (nodeRepository.heartbeat(nodeId, now) == 0) {
+            nodeRepository.save(new SyncNode(nodeId, now, now));
+        }
+        leaseRepository.renew(nodeId, now, until);
+
+        int target = targetShards(now);
+
+        List<Integer> owned = new ArrayList<>(leaseRepository.findOwnedShardIds(nodeId, now));
+        owned.removeIf(shard -> shard >= shards);
+
+        // over the share, give the highest shards back
+        while (owned.size() > target) {
+            leaseRepository.release(owned.remove(owned.size() - 1), nodeId);
+        }
+
+        // under the share, take free shards, a shard another node got first is just skipped
+        if (owned.size() < target) {
+            for (Integer shard : leaseRepository.findClaimableShardIds(now)) {
+                if (owned.size() >= target) {
+                    break;
+                }
+                if (shard < shards && leaseRepository.claim(shard, nodeId, now, until) == 1) {
+                    owned.add(shard);
+                }
+            }
+        }
+
+        Set<Integer> current = new TreeSet<>(owned);
+        if (!current.equals(ownedShards)) {
+            logger.info("Node {} now syncs shards {}", nodeId, current);
+        }
+
+        // leases that ran out may have been held by another node in the meantime, even when claimed again
+        Set<Integer> released = new TreeSet<>(ownedShards);
+        if (!now.isAfter(ownedUntil)) {
+            released.removeAll(current);
+        }
+
+        ownedShards = Set.copyOf(current);
+        ownedUntil = until;
+
+        if (!released.isEmpty()) {
+            eventPublisher.publishEvent(new ShardsReleased(Set.copyOf(released), shards));
+        }
+
+        // a node that is gone for many lease periods will not come back with the same id
+        nodeRepository.deleteStale(now.minusSeconds(leaseTtlSeconds * 10));
+    }
+
+    /* Shards this node should hold right now
+     * ceil(shards / nodes) when every live node has at least its floor share,
+     * otherwise the floor so that the nodes left short (new ones) get shards
+     */
+    private int targetShards(LocalDateTime now) {
+        long nodes = Math.max(1, nodeRepository.countAliveSince(now.minusSeconds(leaseTtlSeconds)));
+        int floor = (int) (shards / nodes);
+        int ceil = (int) ((shards + nodes - 1) / nodes);
+
+        if (floor == 0 || floor == ceil) {
+            return ceil;
+        }
+
+        long atFloor = leaseRepository.countLeasesPerOwner(now, shards).stream()
+                .filter(count -> count >= floor)
+                .count();
+
+        return atFloor < nodes ? floor : ceil;
+    }
+
+    // one row per shard, every node tries on startup, a row another node inserted first is fine
+    private void ensureShardRows() {
+        if (shardRowsCreated) {
+            return;
+        }
+
+        Set<Integer> existing = new HashSet<>();
+        leaseRepository.findAll().forEach(lease -> existing.add(lease.getShardId()));
+
+        for (int shard = 0; shard < shards; shard++) {
+            if (existing.contains(shard)) {
+                continue;
+            }
+            try {
+                leaseRepository.save(new SyncShardLease(shard));
+            } catch (DataAccessException e) {
+                logger.debug("Shard {} row already created by another node", shard);
+            }
+        }
+        shardRowsCreated = true;
+    }
+
+    /* Hand every shard back on shutdown so the other nodes do not have to wait for the leases to run out */
+    @PreDestroy
+    public synchronized void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            leaseRepository.releaseAll(nodeId);
+            nodeRepository.deleteById(nodeId);
+        } catch (DataAccessException e) {
+            logger.warn("Could not release the shard leases of node {}", nodeId, e);
+        }
+        ownedShards = Set.of();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShardCount() {
+        return shards;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // empty once the leases ran out without a successful heartbeat
+    public Set<Integer> ownedShards() {
+        return LocalDateTime.now(clock).isAfter(ownedUntil) ? Set.of() : ownedShards;
+    }
+
+    // checked again right before a user is synced, the shard may have moved since the pass started
+    public boolean ownsUser(Long userId) {
+        return !enabled || ownedShards().contains((int) (userId % shards));
+    }
+
+    /* Shards this node no longer holds, another node may sync their users from now on */
+    public record ShardsReleased(Set<Integer> shards, int shardCount) {
+
+        public boolean contains(Long userId) {
+            return shards.contains((int) (userId % shardCount));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.java.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+
+/* Resolves users by id without going to the database on every call
+ *
+ * two levels:
+ * request memo -> the user is stored as a request attribute so repeated
+ *                 lookups in the same request return the same object
+ * shared cache -> bounded caffeine cache with a ttl, shared by all requests
+ *
+ * the cache holds a detached snapshot of the user and every lookup gets its own
+ * copy of it, a caller changing its user never changes what other requests see.
+ * writes go through AuthService, which changes a freshly loaded entity and evicts
+ * the user again once the change is committed
+ *
+ * hit/miss counts are published as the "users.current" cache metrics
+ */
+@Service
+public class UserCacheService {
+
+    private static final String REQUEST_ATTRIBUTE = UserCacheService.class.getName() + ".user.";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // optional so the cache also works without actuator metrics
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // for evicting the second-level cache entry of a changed user
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<Long, User> users;
+
+    @PostConstruct
+    void initCache() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, users, "users.current");
+        }
+    }
+
+    /* Get a user by id
+     * request memo first, then the shared cache, then the database
+     */
+    public User getUser(Long userId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+
+        if (request != null) {
+            Object memo = request.getAttribute(REQUEST_ATTRIBUTE + userId, RequestAttributes.SCOPE_REQUEST);
+            if (memo instanceof User user) {
+                return user;
+            }
+        }
+
+        // the loader returning null means the user is not cached and not found
+        User snapshot = users.get(userId, id -> userRepository.findById(id).map(UserCacheService::copyOf).orElse(null));
+        if (snapshot == null) {
+            throw new RuntimeException("user not found");
+        }
+        User user = copyOf(snapshot);
+
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE + userId, user, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return user;
+    }
+
+    /* Drop a user from every level, including the hibernate second-level cache
+     * called whenever a user row changes (gmail tokens, deactivation)
+     *
+     * inside a transaction the user is evicted again after commit, a request
+     * running between the two would otherwise cache the old row for the whole ttl
+     */
+    public void evict(Long userId) {
+        evictNow(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId) {
+        users.invalidate(userId);
+        if (entityManagerFactory != null) {
+            entityManagerFactory.getCache().evict(User.class, userId);
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE + userId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // the columns of the user, not its applications (lazy, never loaded through the cache)
+    static User copyOf(User user) {
+        User copy = new User(user.getEmail(), user.getPassword(), user.getFirstName(), user.getLastName());
+        copy.setId(user.getId());
+        copy.setGmailToken(user.getGmailToken());
+        copy.setGmailRefreshToken(user.getGmailRefreshToken());
+        copy.setGmailConnected(user.getGmailConnected());
+        copy.setActive(user.isActive());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    // share of lookups answered by the shared cache (the request memo is not counted)
+    public double hitRatio() {
+        return users.stats().hitRate();
+    }
+}
@@ -0,0 +1,29 @@
+-- Every user gets every counter row up front (count 0), so writers only ever
+-- increment existing rows and never race each other to insert the first one.
+-- new users get their rows when they register (ApplicationStatsService.createCounters),
+-- a status or source added later needs a migration like this one for its rows
+
+INSERT INTO user_application_stats (user_id, category, name, app_count)
+SELECT u.id, c.category, c.name, 0
+FROM users u
+CROSS JOIN (
+    SELECT 'TOTAL' AS category, 'ALL' AS name
+    UNION ALL SELECT 'STATUS', 'APPLIED'
+    UNION ALL SELECT 'STATUS', 'UNDER_REVIEW'
+    UNION ALL SELECT 'STATUS', 'INTERVIEW_SCHEDULED'
+    UNION ALL SELECT 'STATUS', 'INTERVIEWED'
+    UNION ALL SELECT 'STATUS', 'REJECTED'
+    UNION ALL SELECT 'STATUS', 'OFFER_RECEIVED'
+    UNION ALL SELECT 'STATUS', 'OFFER_ACCEPTED'
+    UNION ALL SELECT 'STATUS', 'OFFER_DECLINED'
+    UNION ALL SELECT 'STATUS', 'WITHDRAWN'
+    UNION ALL SELECT 'SOURCE', 'MANUAL'
+    UNION ALL SELECT 'SOURCE', 'GMAIL'
+    UNION ALL SELECT 'SOURCE', 'INDEED'
+    UNION ALL SELECT 'SOURCE', 'COMPANY_WEBSITE'
+    UNION ALL SELECT 'SOURCE', 'OTHER'
+) c
+WHERE NOT EXISTS (
+    SELECT 1 FROM user_application_stats s
+    WHERE s.user_id = u.id AND s.category = c.category AND s.name = c.name
+);
@@ -0,0 +1,22 @@
+-- Token revocations shared by all app nodes, see TokenRevocationList
+--
+-- revoked_tokens -> one row per logged out token (jti), rejected until it expires
+-- revoked_users  -> one row per user whose tokens issued up to revoked_at are flagged
+--                   and checked against the database again (deactivated accounts)
+--
+-- rows are only needed until expires_at, the tokens they are about have expired
+-- after that, expired rows are purged by the nodes
+
+CREATE TABLE revoked_tokens (
+    token_id      VARCHAR(64)  NOT NULL PRIMARY KEY,
+    expires_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE revoked_users (
+    user_id       BIGINT       NOT NULL PRIMARY KEY,
+    revoked_at    TIMESTAMP(6) NOT NULL,
+    expires_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+CREATE INDEX idx_revoked_users_expires ON revoked_users (expires_at);
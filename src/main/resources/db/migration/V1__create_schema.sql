@@ -0,0 +1,40 @@
+-- Initial schema for users and job_applications
+-- matches the User and JobApplication entities, written so it runs on both MySQL and H2
+
+CREATE TABLE users (
+    id                  BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email               VARCHAR(50)  NOT NULL,
+    password            VARCHAR(100) NOT NULL,
+    first_name          VARCHAR(50),
+    last_name           VARCHAR(50),
+    gmail_token         TEXT,
+    gmail_refresh_token TEXT,
+    gmail_connected     BOOLEAN,
+    is_active           BOOLEAN      NOT NULL,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE job_applications (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id          BIGINT       NOT NULL,
+    company_name     VARCHAR(100) NOT NULL,
+    position         VARCHAR(100) NOT NULL,
+    status           VARCHAR(32)  NOT NULL,
+    applied_date     DATE,
+    source           VARCHAR(32)  NOT NULL,
+    job_url          VARCHAR(200),
+    notes            VARCHAR(500),
+    location         VARCHAR(100),
+    job_type         VARCHAR(50),
+    salary_range     VARCHAR(255),
+    response_date    DATE,
+    interview_date   DATE,
+    contact_person   VARCHAR(200),
+    contact_email    VARCHAR(255),
+    gmail_message_id VARCHAR(255),
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT fk_job_applications_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
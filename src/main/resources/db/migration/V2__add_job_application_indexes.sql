@@ -0,0 +1,29 @@
+-- Composite indexes for the JobApplicationRepository queries
+-- every query filters on user_id first, so user_id leads each index
+
+-- findByUserOrderByCreatedAtDescIdDesc, keyset pages and export stream
+-- (WHERE user_id = ? ORDER BY created_at DESC, id DESC)
+CREATE INDEX idx_job_app_user_created ON job_applications (user_id, created_at, id);
+
+-- findByUserAndStatus, countApplicationByStatus, getStatusStatsByUser and the dashboard
+-- GROUP BY status, source (covering, the count never touches the table rows)
+CREATE INDEX idx_job_app_user_status_source ON job_applications (user_id, status, source);
+
+-- findByUserAndSource, getSourceStatsByUser
+CREATE INDEX idx_job_app_user_source ON job_applications (user_id, source);
+
+-- findByUserAndAppliedDate and the recent applications slice of the dashboard
+CREATE INDEX idx_job_app_user_applied ON job_applications (user_id, applied_date);
+
+-- findUpcomingInterviewByUser and the upcoming interviews slice of the dashboard
+CREATE INDEX idx_job_app_user_interview ON job_applications (user_id, interview_date);
+
+-- findPendingOffersByUser (WHERE status = OFFER_RECEIVED ORDER BY updated_at DESC)
+CREATE INDEX idx_job_app_user_status_updated ON job_applications (user_id, status, updated_at);
+
+-- a gmail message can only become one application per user
+-- also serves the "have we seen this message" lookups
+CREATE UNIQUE INDEX ux_job_app_user_gmail_message ON job_applications (user_id, gmail_message_id);
+
+-- findAllUsersWithGmailConnected
+CREATE INDEX idx_users_gmail_connected ON users (gmail_connected);
@@ -0,0 +1,11 @@
+-- Per-user Gmail sync checkpoint
+-- history_id is the Gmail historyId the next incremental sync starts from
+
+CREATE TABLE gmail_sync_state (
+    user_id            BIGINT PRIMARY KEY,
+    history_id         DECIMAL(20, 0),
+    last_synced_at     TIMESTAMP(6),
+    last_full_scan_at  TIMESTAMP(6),
+    messages_imported  BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_gmail_sync_state_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
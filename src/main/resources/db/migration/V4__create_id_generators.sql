@@ -0,0 +1,13 @@
+-- Table backed id generator for job_applications
+-- hibernate reserves ids in blocks of 50 (pooled optimizer), which keeps jdbc
+-- insert batching working, IDENTITY columns force one insert round trip per row
+--
+-- next_val is the highest id of the next block, so start one block above the current max id
+
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val      BIGINT       NOT NULL
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'job_applications', COALESCE(MAX(id), 0) + 50 FROM job_applications;
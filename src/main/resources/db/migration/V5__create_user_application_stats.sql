@@ -0,0 +1,26 @@
+-- Per-user application counters kept up to date on every write
+-- one row per (user, category, name):
+--   TOTAL  / ALL            -> number of applications
+--   STATUS / <status enum>  -> applications with that status
+--   SOURCE / <source enum>  -> applications from that source
+-- the dashboard reads these few rows instead of counting job_applications
+
+CREATE TABLE user_application_stats (
+    user_id   BIGINT      NOT NULL,
+    category  VARCHAR(10) NOT NULL,
+    name      VARCHAR(32) NOT NULL,
+    app_count BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, category, name),
+    CONSTRAINT fk_user_application_stats_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- counters for the applications that already exist
+
+INSERT INTO user_application_stats (user_id, category, name, app_count)
+SELECT user_id, 'TOTAL', 'ALL', COUNT(*) FROM job_applications GROUP BY user_id;
+
+INSERT INTO user_application_stats (user_id, category, name, app_count)
+SELECT user_id, 'STATUS', status, COUNT(*) FROM job_applications GROUP BY user_id, status;
+
+INSERT INTO user_application_stats (user_id, category, name, app_count)
+SELECT user_id, 'SOURCE', source, COUNT(*) FROM job_applications GROUP BY user_id, source;
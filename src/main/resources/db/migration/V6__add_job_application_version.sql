@@ -0,0 +1,5 @@
+-- Optimistic locking for job_applications
+-- every update checks and bumps version, a concurrent edit of the same row
+-- then fails instead of silently overwriting the other one
+
+ALTER TABLE job_applications ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
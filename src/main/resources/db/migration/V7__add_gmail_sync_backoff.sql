@@ -0,0 +1,8 @@
+-- Scheduler state per user on top of the sync checkpoint
+-- next_attempt_at       -> no sync before this time (backoff after a failure or a 429)
+-- consecutive_failures  -> grows the backoff, reset by the next successful sync
+-- last_error            -> short reason of the last failure, for support
+
+ALTER TABLE gmail_sync_state ADD COLUMN next_attempt_at TIMESTAMP(6);
+ALTER TABLE gmail_sync_state ADD COLUMN consecutive_failures INT NOT NULL DEFAULT 0;
+ALTER TABLE gmail_sync_state ADD COLUMN last_error VARCHAR(500);
@@ -0,0 +1,22 @@
+-- Coordination of the gmail sync scheduler between several app nodes
+--
+-- sync_nodes        -> one row per running node, heartbeat_at is refreshed every few
+--                      seconds, nodes that stop heartbeating no longer count
+-- sync_shard_leases -> users are split into shards by MOD(user id, shard count),
+--                      a node only syncs users of shards it holds an unexpired lease on,
+--                      the rows are created by the nodes on startup
+
+CREATE TABLE sync_nodes (
+    node_id       VARCHAR(100) NOT NULL PRIMARY KEY,
+    started_at    TIMESTAMP(6) NOT NULL,
+    heartbeat_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE sync_shard_leases (
+    shard_id      INT          NOT NULL PRIMARY KEY,
+    owner         VARCHAR(100),
+    lease_until   TIMESTAMP(6),
+    heartbeat_at  TIMESTAMP(6)
+);
+
+CREATE INDEX idx_sync_shard_leases_owner ON sync_shard_leases (owner);
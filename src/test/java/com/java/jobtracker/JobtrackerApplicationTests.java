@@ -1,13 +1,36 @@
 package com.java.jobtracker;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.java.service.GmailSyncScheduler;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class JobtrackerApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// the background gmail sync is a bean and its pass is scheduled
+	@Test
+	void gmailSyncSchedulerIsRegistered() {
+		assertThat(context.getBeansOfType(GmailSyncScheduler.class)).hasSize(1);
+
+		assertThat(context.getBeansOfType(ScheduledTaskHolder.class).values().stream()
+				.flatMap(holder -> holder.getScheduledTasks().stream())
+				.map(task -> task.getTask().getRunnable().toString()))
+				.anyMatch(runnable -> runnable.contains("GmailSyncScheduler.syncAll"));
+	}
+
 }
@@ -0,0 +1,81 @@
+package com.java.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.java.model.User;
+
+import jakarta.servlet.FilterChain;
+
+@ExtendWith(MockitoExtension.class)
+class AuthTokenFilterTests {
+
+	@Mock
+	private JwtPrincipalResolver principalResolver;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void aResolvedBearerTokenAuthenticatesTheRequest() throws Exception {
+		User user = new User("user@example.com", "secret");
+		user.setId(7L);
+		when(principalResolver.resolve("good-token")).thenReturn(Optional.of(UserPrincipal.create(user)));
+
+		Authentication authentication = filter(request("Bearer good-token"));
+
+		assertThat(authentication).isNotNull();
+		assertThat(authentication.isAuthenticated()).isTrue();
+		assertThat(((UserPrincipal) authentication.getPrincipal()).getId()).isEqualTo(7L);
+	}
+
+	// revoked, expired or forged, the request goes on without a login
+	@Test
+	void anUnresolvedTokenLeavesTheRequestUnauthenticated() throws Exception {
+		when(principalResolver.resolve("revoked-token")).thenReturn(Optional.empty());
+
+		assertThat(filter(request("Bearer revoked-token"))).isNull();
+	}
+
+	@Test
+	void requestsWithoutABearerTokenAreNotResolved() throws Exception {
+		assertThat(filter(request(null))).isNull();
+		assertThat(filter(request("Basic dXNlcjpzZWNyZXQ="))).isNull();
+		assertThat(filter(request("Bearer "))).isNull();
+		verifyNoInteractions(principalResolver);
+	}
+
+	// the authentication the rest of the chain sees
+	private Authentication filter(MockHttpServletRequest request) throws Exception {
+		Authentication[] seen = new Authentication[1];
+		FilterChain chain = (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication();
+
+		new AuthTokenFilter(principalResolver).doFilter(request, new MockHttpServletResponse(), chain);
+		SecurityContextHolder.clearContext();
+		return seen[0];
+	}
+
+	private static MockHttpServletRequest request(String authorization) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/applications");
+		if (authorization != null) {
+			request.addHeader("Authorization", authorization);
+		}
+		return request;
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.java.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java.model.RevokedToken;
+import com.java.model.RevokedUser;
+import com.java.model.User;
+import com.java.repository.RevokedTokenRepository;
+import com.java.repository.RevokedUserRepository;
+import com.java.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class JwtPrincipalResolverTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@Mock
+	private RevokedUserRepository revokedUserRepository;
+
+	@InjectMocks
+	private JwtPrincipalResolver resolver;
+
+	private JwtUtils jwtUtils;
+	private TokenRevocationList revocationList;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", Base64.getEncoder().encodeToString(new byte[32]));
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirations", 60_000);
+		ReflectionTestUtils.setField(jwtUtils, "jwtKeyId", "primary");
+		ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", true);
+		jwtUtils.initKeys();
+
+		revocationList = new TokenRevocationList();
+		ReflectionTestUtils.setField(revocationList, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(revocationList, "revokedTokenRepository", revokedTokenRepository);
+		ReflectionTestUtils.setField(revocationList, "revokedUserRepository", revokedUserRepository);
+		revocationList.initCaches();
+
+		ReflectionTestUtils.setField(resolver, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(resolver, "revocationList", revocationList);
+
+		user = new User("user@example.com", "secret", "Ada", "Lovelace");
+		user.setId(7L);
+	}
+
+	@Test
+	void statelessTokenIsResolvedWithoutTheDatabase() {
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+
+		UserPrincipal principal = resolver.resolve(token).orElseThrow();
+
+		assertThat(principal.getId()).isEqualTo(7L);
+		assertThat(principal.getEmail()).isEqualTo("user@example.com");
+		assertThat(principal.getFirstName()).isEqualTo("Ada");
+		assertThat(principal.getLastName()).isEqualTo("Lovelace");
+		assertThat(principal.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+		assertThat(principal.getPassword()).isNull();
+		verifyNoInteractions(userRepository);
+	}
+
+	@Test
+	void flaggedUserIsCheckedAgainstTheDatabase() {
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+		revocationList.revokeUser(7L);
+
+		// deactivated, findByEmailActive no longer finds the user
+		when(userRepository.findByEmailActive(anyString())).thenReturn(Optional.empty());
+
+		assertThat(resolver.resolve(token)).isEmpty();
+		verify(userRepository).findByEmailActive("user@example.com");
+	}
+
+	@Test
+	void tokensWithoutClaimsFallBackToTheDatabase() {
+		ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", false);
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+		ReflectionTestUtils.setField(jwtUtils, "statelessPrincipal", true);
+		when(userRepository.findByEmailActive("user@example.com")).thenReturn(Optional.of(user));
+
+		assertThat(resolver.resolve(token)).hasValueSatisfying(principal -> assertThat(principal.getId()).isEqualTo(7L));
+	}
+
+	@Test
+	void revokedTokenIsRejected() {
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+		revocationList.revokeToken(jwtUtils.parseClaims(token).orElseThrow().getId());
+
+		assertThat(resolver.resolve(token)).isEmpty();
+		verifyNoInteractions(userRepository);
+	}
+
+	// revoked on another node, this node only finds it in the database
+	@Test
+	void revocationsOfOtherNodesAreSeenThroughTheDatabase() {
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+		String tokenId = jwtUtils.parseClaims(token).orElseThrow().getId();
+		when(revokedTokenRepository.isRevoked(eq(tokenId), any(LocalDateTime.class))).thenReturn(true);
+
+		assertThat(resolver.resolve(token)).isEmpty();
+		assertThat(resolver.resolve(token)).isEmpty();
+
+		// the answer is cached, not looked up per request
+		verify(revokedTokenRepository).isRevoked(eq(tokenId), any(LocalDateTime.class));
+		verifyNoInteractions(userRepository);
+	}
+
+	@Test
+	void usersRevokedOnOtherNodesAreCheckedAgainstTheDatabase() {
+		String token = jwtUtils.generateTokenFromPrincipal(UserPrincipal.create(user));
+		when(revokedUserRepository.findRevokedAt(eq(7L), any(LocalDateTime.class)))
+				.thenReturn(Optional.of(LocalDateTime.now().plusSeconds(1)));
+		when(userRepository.findByEmailActive("user@example.com")).thenReturn(Optional.empty());
+
+		assertThat(resolver.resolve(token)).isEmpty();
+	}
+
+	@Test
+	void revocationsAreStoredForEveryNode() {
+		when(revokedUserRepository.revokeAgain(eq(7L), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(0);
+
+		revocationList.revokeUser(7L);
+		revocationList.revokeToken("token-1");
+
+		verify(revokedUserRepository).save(any(RevokedUser.class));
+		verify(revokedTokenRepository).save(any(RevokedToken.class));
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.java.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+class JwtUtilsTests {
+
+	private final byte[] currentSecret = secret(1);
+	private final byte[] previousSecret = secret(2);
+
+	private JwtUtils jwtUtils;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", Base64.getEncoder().encodeToString(currentSecret));
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirations", 60_000);
+		ReflectionTestUtils.setField(jwtUtils, "jwtKeyId", "k2");
+		ReflectionTestUtils.setField(jwtUtils, "previousSecrets",
+				"k1:" + Base64.getEncoder().encodeToString(previousSecret));
+		jwtUtils.initKeys();
+	}
+
+	@Test
+	void tokensWithAKeyIdAreVerifiedWithThatKey() {
+		assertThat(jwtUtils.parseClaims(jwtUtils.generateTokenFromEmail("user@example.com")))
+				.hasValueSatisfying(claims -> assertThat(claims.getSubject()).isEqualTo("user@example.com"));
+	}
+
+	// issued before key ids, signed with the secret that was current back then
+	@Test
+	void tokensWithoutAKeyIdAreVerifiedWithEveryKey() {
+		assertThat(jwtUtils.parseClaims(legacyToken(currentSecret, new Date()))).isPresent();
+		assertThat(jwtUtils.parseClaims(legacyToken(previousSecret, new Date()))).isPresent();
+		assertThat(jwtUtils.extractEmailFromToken(legacyToken(previousSecret, new Date())))
+				.isEqualTo("legacy@example.com");
+
+		assertThat(jwtUtils.parseClaims(legacyToken(secret(3), new Date()))).isEmpty();
+	}
+
+	@Test
+	void everyJwtFailureIsAnInvalidToken() {
+		// not valid before tomorrow, PrematureJwtException
+		assertThat(jwtUtils.validateToken(legacyToken(currentSecret, new Date(System.currentTimeMillis() + 86_400_000))))
+				.isFalse();
+		assertThat(jwtUtils.validateToken("not-a-token")).isFalse();
+		assertThat(jwtUtils.validateToken("")).isFalse();
+	}
+
+	private static String legacyToken(byte[] secret, Date notBefore) {
+		Key key = Keys.hmacShaKeyFor(secret);
+		Date now = new Date();
+		return Jwts.builder()
+				.setSubject("legacy@example.com")
+				.setIssuedAt(now)
+				.setNotBefore(notBefore)
+				.setExpiration(new Date(now.getTime() + 86_400_000L * 2))
+				.signWith(key, SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	private static byte[] secret(int seed) {
+		byte[] secret = new byte[32];
+		Arrays.fill(secret, (byte) seed);
+		return secret;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.java.dto.ImportReport;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+
+/* Importing a file that was imported before, against a real (H2) database with the unique gmail key */
+class ApplicationReimportTests {
+
+	private static final String FILE = """
+			{"companyName":"Acme","position":"Backend Engineer","status":"APPLIED","appliedDate":"2024-03-01"}
+			{"companyName":"Globex","position":"SRE","status":"APPLIED","appliedDate":"2024-03-02","gmailMessageId":"m1"}
+			{"companyName":"Initech","position":"Platform Engineer","status":"APPLIED","appliedDate":"2024-03-03"}
+			""";
+
+	private static ConfigurableApplicationContext context;
+	private static ApplicationTransferService transferService;
+	private static JobApplicationService service;
+
+	@BeforeAll
+	static void start() {
+		context = new SpringApplicationBuilder(ReimportTestApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.url=jdbc:h2:mem:reimport;DB_CLOSE_DELAY=-1", "app.import.chunk-size=2")
+				.run();
+		transferService = context.getBean(ApplicationTransferService.class);
+		service = context.getBean(JobApplicationService.class);
+	}
+
+	@AfterAll
+	static void stop() {
+		context.close();
+	}
+
+	@Test
+	void importingTheSameFileTwiceStoresItOnce() throws Exception {
+		User user = context.getBean(UserRepository.class).save(new User("twice@example.com", "secret"));
+
+		ImportReport first = transferService.importNdjson(stream(FILE), user);
+		assertThat(first.imported()).isEqualTo(3);
+
+		ImportReport second = transferService.importNdjson(stream(FILE), user);
+		assertThat(second.imported()).isZero();
+		assertThat(second.duplicates()).isEqualTo(3);
+		assertThat(second.failed()).isZero();
+		assertThat(second.chunks()).allSatisfy(chunk -> assertThat(chunk.committed()).isTrue());
+
+		assertThat(service.getTotalApplication(user)).isEqualTo(3);
+	}
+
+	// the known gmail message used to fail the unique key and with it every other row of the chunk
+	@Test
+	void aChunkWithAStoredGmailMessageStillStoresItsNewRows() throws Exception {
+		User user = context.getBean(UserRepository.class).save(new User("gmail@example.com", "secret"));
+		transferService.importNdjson(stream("""
+				{"companyName":"Globex","position":"SRE","appliedDate":"2024-03-02","gmailMessageId":"m1"}
+				"""), user);
+
+		ImportReport report = transferService.importNdjson(stream("""
+				{"companyName":"Globex","position":"SRE","appliedDate":"2024-03-02","gmailMessageId":"m1"}
+				{"companyName":"Hooli","position":"Data Engineer","appliedDate":"2024-03-04"}
+				"""), user);
+
+		assertThat(report.chunks()).singleElement().satisfies(chunk -> {
+			assertThat(chunk.committed()).isTrue();
+			assertThat(chunk.imported()).isEqualTo(1);
+			assertThat(chunk.duplicates()).isEqualTo(1);
+		});
+		assertThat(service.getTotalApplication(user)).isEqualTo(2);
+	}
+
+	// the undated row was stored with the import day as its date, a later import must still match it
+	@Test
+	void undatedRowsImportedOnAnEarlierDayAreNotStoredAgain() throws Exception {
+		User user = context.getBean(UserRepository.class).save(new User("undated@example.com", "secret"));
+		String file = """
+				{"companyName":"Umbrella","position":"QA Engineer","status":"APPLIED"}
+				""";
+		transferService.importNdjson(stream(file), user);
+
+		// as if that import ran yesterday
+		context.getBean(JdbcTemplate.class).update("UPDATE job_applications SET applied_date = ?, created_at = ? "
+				+ "WHERE user_id = ?", LocalDate.now().minusDays(1), LocalDateTime.now().minusDays(1), user.getId());
+
+		ImportReport again = transferService.importNdjson(stream(file), user);
+
+		assertThat(again.imported()).isZero();
+		assertThat(again.duplicates()).isEqualTo(1);
+		assertThat(service.getTotalApplication(user)).isEqualTo(1);
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.java.model")
+	@EnableJpaRepositories("com.java.repository")
+	@Import({ ApplicationTransferService.class, JobApplicationService.class, ApplicationStatsService.class,
+			ApplicationSearchIndex.class, GmailMessageDedupe.class })
+	static class ReimportTestApplication {
+	}
+
+}
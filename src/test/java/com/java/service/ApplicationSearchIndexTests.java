@@ -0,0 +1,106 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.java.model.JobApplication;
+import com.java.model.User;
+import com.java.repository.JobApplicationRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationSearchIndexTests {
+
+	@Mock
+	private JobApplicationRepository jobApplicationRepository;
+
+	@InjectMocks
+	private ApplicationSearchIndex searchIndex;
+
+	private final User user = user(1L);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(searchIndex, "maxUsers", 100L);
+		ReflectionTestUtils.setField(searchIndex, "expireAfterAccessMinutes", 30L);
+		ReflectionTestUtils.setField(searchIndex, "maxAgeMinutes", 5L);
+		searchIndex.initCache();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void changesAreOnlyIndexedOnceTheTransactionCommits() {
+		when(jobApplicationRepository.streamByUser(user)).thenReturn(Stream.empty());
+		searchIndex.load(user);
+
+		TransactionSynchronizationManager.initSynchronization();
+		searchIndex.index(application(10L, "Acme"));
+		assertThat(searchIndex.search(1L, "acme", 0, 10).ids()).isEmpty();
+
+		// rolled back, the callbacks are dropped without running
+		TransactionSynchronizationManager.clearSynchronization();
+		assertThat(searchIndex.search(1L, "acme", 0, 10).ids()).isEmpty();
+
+		TransactionSynchronizationManager.initSynchronization();
+		searchIndex.index(application(10L, "Acme"));
+		TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+		TransactionSynchronizationManager.clearSynchronization();
+
+		assertThat(searchIndex.search(1L, "acme", 0, 10).ids()).containsExactly(10L);
+	}
+
+	@Test
+	void anIndexIsPublishedCompleteWithTheChangesCommittedWhileItWasBuilt() {
+		when(jobApplicationRepository.streamByUser(user)).thenAnswer(invocation -> Stream
+				.of(application(10L, "Acme"), application(11L, "Globex"))
+				.peek(streamed -> {
+					// nothing half built is visible to searches
+					assertThat(searchIndex.isLoaded(1L)).isFalse();
+					if (streamed.getId() == 10L) {
+						searchIndex.index(application(12L, "Acme Labs"));
+						searchIndex.remove(1L, 11L);
+					}
+				}));
+
+		searchIndex.load(user);
+
+		assertThat(searchIndex.isLoaded(1L)).isTrue();
+		assertThat(searchIndex.search(1L, "acme", 0, 10).ids()).containsExactlyInAnyOrder(10L, 12L);
+		assertThat(searchIndex.search(1L, "globex", 0, 10).ids()).isEmpty();
+	}
+
+	private JobApplication application(Long id, String company) {
+		JobApplication application = new JobApplication();
+		application.setId(id);
+		application.setUser(user);
+		application.setCompanyName(company);
+		application.setPosition("Engineer");
+		return application;
+	}
+
+	private static User user(Long id) {
+		User user = new User("user" + id + "@example.com", "secret");
+		user.setId(id);
+		return user;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.java.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import com.java.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationStatsReconcilerTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private ApplicationStatsService statsService;
+
+	@Mock
+	private ShardLeaseManager leaseManager;
+
+	@InjectMocks
+	private ApplicationStatsReconciler reconciler;
+
+	// every node runs the job, a user is only recounted by the node holding its shard
+	@Test
+	void onlyUsersOfOwnedShardsAreReconciled() {
+		when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+		when(leaseManager.ownsUser(1L)).thenReturn(true);
+		when(leaseManager.ownsUser(2L)).thenReturn(false);
+
+		reconciler.reconcileAll();
+
+		verify(statsService).reconcileUser(1L);
+		verify(statsService, never()).reconcileUser(2L);
+	}
+
+}
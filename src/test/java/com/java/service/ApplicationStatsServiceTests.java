@@ -0,0 +1,130 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.UserApplicationStat;
+import com.java.model.UserApplicationStat.Category;
+import com.java.model.UserApplicationStat.Key;
+import com.java.repository.JobApplicationRepository;
+import com.java.repository.UserApplicationStatRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationStatsServiceTests {
+
+	@Mock
+	private UserApplicationStatRepository statRepository;
+
+	@Mock
+	private JobApplicationRepository jobApplicationRepository;
+
+	@InjectMocks
+	private ApplicationStatsService statsService;
+
+	@Test
+	void statusChangeMovesOneCountBetweenStatuses() {
+		JobApplication updated = new JobApplication(null, "Acme", "Backend Engineer",
+				ApplicationStatus.INTERVIEW_SCHEDULED, ApplicationSource.MANUAL);
+		when(statRepository.increment(anyLong(), any(), anyString(), anyLong())).thenReturn(1);
+
+		statsService.applicationChanged(5L, ApplicationStatus.APPLIED, ApplicationSource.MANUAL, updated);
+
+		// total and source did not change, only the two status counters are touched
+		verify(statRepository).increment(5L, Category.STATUS, "APPLIED", -1L);
+		verify(statRepository).increment(5L, Category.STATUS, "INTERVIEW_SCHEDULED", 1L);
+		verifyNoMoreInteractions(statRepository);
+	}
+
+	// two writers always lock the shared counter rows in the same (primary key) order
+	@Test
+	void countersOfOneWriteAreUpdatedInKeyOrder() {
+		when(statRepository.increment(anyLong(), any(), anyString(), anyLong())).thenReturn(1);
+
+		statsService.applicationsAdded(5L, List.of(
+				new JobApplication(null, "Acme", "SRE", ApplicationStatus.OFFER_RECEIVED, ApplicationSource.MANUAL),
+				new JobApplication(null, "Globex", "SRE", ApplicationStatus.APPLIED, ApplicationSource.GMAIL)));
+
+		InOrder order = inOrder(statRepository);
+		order.verify(statRepository).increment(5L, Category.TOTAL, "ALL", 2L);
+		order.verify(statRepository).increment(5L, Category.STATUS, "APPLIED", 1L);
+		order.verify(statRepository).increment(5L, Category.STATUS, "OFFER_RECEIVED", 1L);
+		order.verify(statRepository).increment(5L, Category.SOURCE, "GMAIL", 1L);
+		order.verify(statRepository).increment(5L, Category.SOURCE, "MANUAL", 1L);
+		verifyNoMoreInteractions(statRepository);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void aNewUserGetsEveryCounterAtZero() {
+		statsService.createCounters(5L);
+
+		ArgumentCaptor<List<UserApplicationStat>> created = ArgumentCaptor.forClass(List.class);
+		verify(statRepository).saveAll(created.capture());
+		assertThat(created.getValue())
+				.hasSize(1 + ApplicationStatus.values().length + ApplicationSource.values().length)
+				.allSatisfy(stat -> assertThat(stat.getCount()).isZero())
+				.extracting(UserApplicationStat::getId)
+				.contains(new Key(5L, Category.TOTAL, "ALL"), new Key(5L, Category.STATUS, "WITHDRAWN"),
+						new Key(5L, Category.SOURCE, "OTHER"));
+	}
+
+	@Test
+	void reconciliationRepairsDriftedCounters() {
+		UserApplicationStat total = new UserApplicationStat(new Key(5L, Category.TOTAL, "ALL"), 4L);
+		UserApplicationStat applied = new UserApplicationStat(new Key(5L, Category.STATUS, "APPLIED"), 4L);
+		UserApplicationStat manual = new UserApplicationStat(new Key(5L, Category.SOURCE, "MANUAL"), 4L);
+		UserApplicationStat rejected = new UserApplicationStat(new Key(5L, Category.STATUS, "REJECTED"), 2L);
+		when(statRepository.lockByUserId(5L)).thenReturn(List.of(total, applied, manual, rejected));
+
+		when(jobApplicationRepository.countByStatusAndSourceForUserId(5L)).thenReturn(List.of(
+				new Object[] { ApplicationStatus.APPLIED, ApplicationSource.MANUAL, 3L },
+				new Object[] { ApplicationStatus.OFFER_RECEIVED, ApplicationSource.MANUAL, 1L }));
+
+		boolean repaired = statsService.reconcileUser(5L);
+
+		assertThat(repaired).isTrue();
+		assertThat(total.getCount()).isEqualTo(4L);
+		assertThat(manual.getCount()).isEqualTo(4L);
+		assertThat(applied.getCount()).isEqualTo(3L);
+		assertThat(rejected.getCount()).isZero();
+
+		ArgumentCaptor<UserApplicationStat> created = ArgumentCaptor.forClass(UserApplicationStat.class);
+		verify(statRepository).save(created.capture());
+		assertThat(created.getValue().getId()).isEqualTo(new Key(5L, Category.STATUS, "OFFER_RECEIVED"));
+		assertThat(created.getValue().getCount()).isEqualTo(1L);
+	}
+
+	@Test
+	void reconciliationLeavesCorrectCountersAlone() {
+		when(statRepository.lockByUserId(5L)).thenReturn(List.of(
+				new UserApplicationStat(new Key(5L, Category.TOTAL, "ALL"), 2L),
+				new UserApplicationStat(new Key(5L, Category.STATUS, "APPLIED"), 2L),
+				new UserApplicationStat(new Key(5L, Category.SOURCE, "GMAIL"), 2L)));
+		when(jobApplicationRepository.countByStatusAndSourceForUserId(5L)).thenReturn(List.<Object[]>of(
+				new Object[] { ApplicationStatus.APPLIED, ApplicationSource.GMAIL, 2L }));
+
+		assertThat(statsService.reconcileUser(5L)).isFalse();
+		verify(statRepository, never()).save(any());
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java.dto.ImportReport;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationTransferServiceTests {
+
+	@Mock
+	private JobApplicationService jobApplicationService;
+
+	@Mock
+	private GmailMessageDedupe messageDedupe;
+
+	@InjectMocks
+	private ApplicationTransferService transferService;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(transferService, "validator",
+				Validation.buildDefaultValidatorFactory().getValidator());
+		ReflectionTestUtils.setField(transferService, "chunkSize", 2);
+
+		user = new User("user@example.com", "secret");
+		user.setId(3L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void csvImportCommitsValidRowsPerChunkAndReportsTheRest() throws Exception {
+		String csv = """
+				companyName,position,status,appliedDate
+				Acme,Backend Engineer,interview_scheduled,2024-03-01
+				,Data Engineer,APPLIED,2024-03-02
+				Globex,SRE,NOT_A_STATUS,2024-03-03
+				Initech,Platform Engineer,,
+				""";
+		when(jobApplicationService.importApplications(any(), eq(user)))
+				.thenAnswer(call -> ((List<JobApplication>) call.getArgument(0)).size());
+
+		ImportReport report = transferService.importCsv(stream(csv), user);
+
+		assertThat(report.rowsRead()).isEqualTo(4);
+		assertThat(report.imported()).isEqualTo(2);
+		assertThat(report.chunks()).hasSize(2);
+		assertThat(report.chunks().get(0).errors()).singleElement()
+				.satisfies(error -> {
+					assertThat(error.row()).isEqualTo(2);
+					assertThat(error.field()).isEqualTo("companyName");
+				});
+		assertThat(report.chunks().get(1).errors()).singleElement()
+				.satisfies(error -> assertThat(error.row()).isEqualTo(3));
+
+		// one batched insert per chunk
+		ArgumentCaptor<List<JobApplication>> chunks = ArgumentCaptor.forClass(List.class);
+		verify(jobApplicationService, times(2)).importApplications(chunks.capture(), eq(user));
+		JobApplication acme = chunks.getAllValues().get(0).get(0);
+		assertThat(acme.getStatus()).isEqualTo(ApplicationStatus.INTERVIEW_SCHEDULED);
+		assertThat(acme.getAppliedDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+		assertThat(chunks.getAllValues().get(1).get(0).getStatus()).isEqualTo(ApplicationStatus.APPLIED);
+
+		verify(messageDedupe).evict(3L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void ndjsonExportStreamsEveryApplication() throws Exception {
+		JobApplication acme = new JobApplication(user, "Acme", "Backend Engineer");
+		JobApplication globex = new JobApplication(user, "Globex", "SRE");
+		when(jobApplicationService.forEachApplication(eq(user), any())).thenAnswer(call -> {
+			Consumer<JobApplication> consumer = call.getArgument(1);
+			consumer.accept(acme);
+			consumer.accept(globex);
+			return 2L;
+		});
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long exported = transferService.exportNdjson(user, out);
+
+		assertThat(exported).isEqualTo(2);
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(2);
+		assertThat(lines[0]).contains("\"companyName\":\"Acme\"");
+		assertThat(lines[1]).contains("\"companyName\":\"Globex\"");
+
+		// the exported file can be imported again
+		when(jobApplicationService.importApplications(any(), eq(user)))
+				.thenAnswer(call -> ((List<JobApplication>) call.getArgument(0)).size());
+		ImportReport report = transferService.importNdjson(stream(out.toString(StandardCharsets.UTF_8)), user);
+		assertThat(report.imported()).isEqualTo(2);
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
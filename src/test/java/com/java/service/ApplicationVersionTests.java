@@ -0,0 +1,127 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.java.config.QueryCounter;
+import com.java.dto.ApplicationPatch;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.JobApplicationRepository;
+import com.java.repository.UserRepository;
+
+/* Optimistic locking of applications against the Flyway schema, with real transactions
+ * (not the per-test rollback transaction of @DataJpaTest)
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+		"spring.jpa.properties.jakarta.persistence.sharedCache.mode=NONE" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ApplicationVersionTests {
+
+	@Autowired
+	private JobApplicationService service;
+
+	@Autowired
+	private JobApplicationRepository jobApplicationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void theSecondOfTwoPatchesOfTheSameVersionFailsOnCommit() {
+		User user = userRepository.save(new User("versions@example.com", "secret"));
+		JobApplication stored = service.createApplication(new JobApplication(user, "Acme", "Backend Engineer"), user);
+		Long id = stored.getId();
+		Long version = stored.getVersion();
+
+		TransactionTemplate second = new TransactionTemplate(transactionManager);
+		TransactionTemplate first = new TransactionTemplate(transactionManager);
+		first.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		assertThatThrownBy(() -> second.executeWithoutResult(status -> {
+			// the second transaction reads version N first ...
+			JobApplication loaded = jobApplicationRepository.findByIdAndUserId(id, user.getId()).orElseThrow();
+			assertThat(loaded.getVersion()).isEqualTo(version);
+
+			// ... the first one patches the same version N and commits ...
+			first.executeWithoutResult(inner -> service.patchApplication(id, patch(version,
+					ApplicationStatus.INTERVIEW_SCHEDULED), user));
+
+			// ... so the second patch, still on version N, finds no row to update
+			service.patchApplication(id, patch(version, ApplicationStatus.REJECTED), user);
+		})).isInstanceOf(ApplicationConflictException.class);
+
+		JobApplication current = jobApplicationRepository.findById(id).orElseThrow();
+		assertThat(current.getStatus()).isEqualTo(ApplicationStatus.INTERVIEW_SCHEDULED);
+		assertThat(current.getVersion()).isEqualTo(version + 1);
+	}
+
+	// @DynamicUpdate, a patch writes the changed column plus the timestamp and version, nothing else
+	@Test
+	void aPatchUpdatesOnlyTheChangedColumns() {
+		User user = userRepository.save(new User("columns@example.com", "secret"));
+		JobApplication stored = service.createApplication(new JobApplication(user, "Acme", "Backend Engineer"), user);
+
+		List<String> updates;
+		try (QueryCounter.Scope scope = QueryCounter.start()) {
+			service.patchApplication(stored.getId(), patch(stored.getVersion(), ApplicationStatus.REJECTED), user);
+			updates = scope.statements().stream()
+					.map(sql -> sql.toLowerCase().replaceAll("\\s+", " ").trim())
+					.filter(sql -> sql.startsWith("update job_applications "))
+					.toList();
+		}
+
+		assertThat(updates).singleElement().satisfies(sql -> {
+			assertThat(setColumns(sql)).containsExactlyInAnyOrder("status", "updated_at", "version");
+			assertThat(sql).endsWith("where id=? and version=?");
+		});
+	}
+
+	// "update t set a=?,b=? where ..." -> [a, b]
+	private static List<String> setColumns(String sql) {
+		String assignments = sql.substring(sql.indexOf(" set ") + 5, sql.indexOf(" where "));
+		return Arrays.stream(assignments.split(","))
+				.map(assignment -> assignment.substring(0, assignment.indexOf('=')).trim())
+				.toList();
+	}
+
+	private static ApplicationPatch patch(Long version, ApplicationStatus status) {
+		ApplicationPatch patch = new ApplicationPatch();
+		patch.setVersion(version);
+		patch.setStatus(status);
+		return patch;
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.java.model")
+	@EnableJpaRepositories("com.java.repository")
+	@Import({ JobApplicationService.class, ApplicationStatsService.class, ApplicationSearchIndex.class,
+			GmailMessageDedupe.class })
+	static class VersionTestApplication {
+	}
+
+}
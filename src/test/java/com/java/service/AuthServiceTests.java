@@ -0,0 +1,78 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.java.config.GmailConfig;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+import com.java.security.TokenRevocationList;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private UserCacheService userCacheService;
+
+	@Mock
+	private GmailConfig gmailConfig;
+
+	@Mock
+	private TokenRevocationList revocationList;
+
+	@InjectMocks
+	private AuthService authService;
+
+	// the cached user other requests are reading is never changed, the loaded row is
+	@Test
+	void gmailConnectionIsWrittenOnAFreshlyLoadedUser() {
+		User cached = user();
+		User managed = user();
+		when(userRepository.findById(7L)).thenReturn(Optional.of(managed));
+
+		authService.updateGmailConnection(cached, "access", "refresh");
+
+		assertThat(cached.getGmailToken()).isNull();
+		assertThat(cached.getGmailConnected()).isFalse();
+		assertThat(managed.getGmailToken()).isEqualTo("access");
+		assertThat(managed.getGmailRefreshToken()).isEqualTo("refresh");
+		assertThat(managed.getGmailConnected()).isTrue();
+		verify(userRepository).save(managed);
+		verify(userCacheService).evict(7L);
+		verify(gmailConfig).evictGmailClient(7L);
+	}
+
+	@Test
+	void deactivationIsWrittenOnAFreshlyLoadedUser() {
+		User cached = user();
+		User managed = user();
+		when(userRepository.findById(7L)).thenReturn(Optional.of(managed));
+
+		authService.deactivateUser(cached);
+
+		assertThat(cached.isActive()).isTrue();
+		assertThat(managed.isActive()).isFalse();
+		verify(userRepository).save(managed);
+		verify(userCacheService).evict(7L);
+		verify(revocationList).revokeUser(7L);
+	}
+
+	private static User user() {
+		User user = new User("user@example.com", "secret");
+		user.setId(7L);
+		return user;
+	}
+
+}
@@ -0,0 +1,213 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/* Local stand-in for the Gmail REST api used by the sync tests
+ * serves profile, history, message list, message get and the batch endpoint
+ * from in-memory data and counts the calls per endpoint
+ */
+class FakeGmailServer implements AutoCloseable {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final HttpServer server;
+
+	private final Map<String, Map<String, Object>> messages = new LinkedHashMap<>();
+	private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+	private String profileHistoryId = "1";
+	private List<String> historyMessageIds = List.of();
+	private String historyId = "1";
+	private boolean historyExpired;
+	// message id -> Retry-After seconds, gets of these messages are answered with 429
+	private final Map<String, Integer> rateLimited = new ConcurrentHashMap<>();
+
+	FakeGmailServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	String rootUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + "/";
+	}
+
+	void addMessage(String id, String from, String subject, String snippet) {
+		Map<String, Object> message = new LinkedHashMap<>();
+		message.put("id", id);
+		message.put("snippet", snippet);
+		message.put("internalDate", "1700000000000");
+		message.put("payload", Map.of("headers", List.of(
+				Map.of("name", "From", "value", from),
+				Map.of("name", "Subject", "value", subject))));
+		messages.put(id, message);
+	}
+
+	void profileHistoryId(String historyId) {
+		this.profileHistoryId = historyId;
+	}
+
+	void history(List<String> addedMessageIds, String newHistoryId) {
+		this.historyMessageIds = addedMessageIds;
+		this.historyId = newHistoryId;
+	}
+
+	void expireHistory() {
+		this.historyExpired = true;
+	}
+
+	void rateLimit(String messageId, int retryAfterSeconds) {
+		rateLimited.put(messageId, retryAfterSeconds);
+	}
+
+	int calls(String endpoint) {
+		AtomicInteger count = calls.get(endpoint);
+		return count == null ? 0 : count.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+
+		if (path.endsWith("/batch/gmail/v1")) {
+			count("batch");
+			respondBatch(exchange);
+			return;
+		}
+
+		Response response = route(path);
+		response.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+		respond(exchange, response.status(), response.body());
+	}
+
+	// answers a single api call, shared by plain requests and batch parts
+	private Response route(String path) {
+		if (path.endsWith("/users/me/profile")) {
+			count("profile");
+			return new Response(200, Map.of("emailAddress", "user@example.com", "historyId", profileHistoryId));
+
+		} else if (path.endsWith("/users/me/history")) {
+			count("history");
+			if (historyExpired) {
+				return new Response(404, Map.of("error", Map.of("code", 404, "message", "Requested entity was not found.")));
+			}
+			List<Object> added = new ArrayList<>();
+			for (String id : historyMessageIds) {
+				added.add(Map.of("message", Map.of("id", id)));
+			}
+			return new Response(200, Map.of("history", List.of(Map.of("id", historyId, "messagesAdded", added)),
+					"historyId", historyId));
+
+		} else if (path.endsWith("/users/me/messages")) {
+			count("list");
+			List<Object> ids = new ArrayList<>();
+			for (String id : messages.keySet()) {
+				ids.add(Map.of("id", id));
+			}
+			return new Response(200, Map.of("messages", ids, "resultSizeEstimate", ids.size()));
+
+		} else if (path.contains("/users/me/messages/")) {
+			count("get");
+			String id = path.substring(path.lastIndexOf('/') + 1);
+			Integer retryAfter = rateLimited.get(id);
+			if (retryAfter != null) {
+				return new Response(429, Map.of("error", Map.of("code", 429, "message", "Too many concurrent requests for user",
+						"errors", List.of(Map.of("reason", "rateLimitExceeded", "message", "Rate Limit Exceeded")))),
+						Map.of("Retry-After", String.valueOf(retryAfter)));
+			}
+			Map<String, Object> message = messages.get(id);
+			if (message == null) {
+				return new Response(404, Map.of("error", Map.of("code", 404, "message", "Not Found")));
+			}
+			return new Response(200, message);
+		}
+
+		return new Response(404, Map.of("error", Map.of("code", 404, "message", "Unknown path " + path)));
+	}
+
+	/* multipart/mixed batch: every part carries one "GET <url> HTTP/1.1" request,
+	 * the answers go back as application/http parts in the same order
+	 */
+	private void respondBatch(HttpExchange exchange) throws IOException {
+		String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+		String responseBoundary = "batch_fake";
+		StringBuilder out = new StringBuilder();
+
+		for (String part : body.split("--" + Pattern.quote(boundary))) {
+			int requestLine = part.indexOf("GET ");
+			if (requestLine < 0) {
+				continue;
+			}
+			String url = part.substring(requestLine + 4, part.indexOf(' ', requestLine + 4));
+			Response response = route(URI.create(url).getPath());
+			String json = MAPPER.writeValueAsString(response.body());
+
+			out.append("--").append(responseBoundary).append("\r\n")
+					.append("Content-Type: application/http\r\n\r\n")
+					.append("HTTP/1.1 ").append(response.status()).append(' ').append(reason(response.status())).append("\r\n");
+			response.headers().forEach((name, value) -> out.append(name).append(": ").append(value).append("\r\n"));
+			out.append("Content-Type: application/json; charset=UTF-8\r\n")
+					.append("Content-Length: ").append(json.getBytes(StandardCharsets.UTF_8).length).append("\r\n\r\n")
+					.append(json).append("\r\n");
+		}
+		out.append("--").append(responseBoundary).append("--\r\n");
+
+		byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "multipart/mixed; boundary=" + responseBoundary);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream stream = exchange.getResponseBody()) {
+			stream.write(bytes);
+		}
+	}
+
+	private record Response(int status, Object body, Map<String, String> headers) {
+
+		Response(int status, Object body) {
+			this(status, body, Map.of());
+		}
+	}
+
+	private static String reason(int status) {
+		return switch (status) {
+			case 200 -> "OK";
+			case 429 -> "Too Many Requests";
+			default -> "Not Found";
+		};
+	}
+
+	private void count(String endpoint) {
+		calls.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+	}
+
+	private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+		byte[] json = MAPPER.writeValueAsBytes(body);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		exchange.sendResponseHeaders(status, json.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(json);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+}
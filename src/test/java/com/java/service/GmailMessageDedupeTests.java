@@ -0,0 +1,51 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.java.repository.JobApplicationRepository;
+
+@ExtendWith(MockitoExtension.class)
+class GmailMessageDedupeTests {
+
+	@Mock
+	private JobApplicationRepository jobApplicationRepository;
+
+	@InjectMocks
+	private GmailMessageDedupe dedupe;
+
+	@BeforeEach
+	void setUp() {
+		dedupe.initCache();
+	}
+
+	@Test
+	void brandNewMessagesNeedNoQuery() {
+		when(jobApplicationRepository.findAllGmailMessageIds(7L)).thenReturn(List.of("m1", "m2"));
+
+		assertThat(dedupe.findKnown(7L, List.of("n1", "n2", "n3"))).isEmpty();
+
+		verify(jobApplicationRepository, never()).findKnownGmailMessageIds(anyLong(), any());
+	}
+
+	// about 1.2 KB for a small mailbox instead of a fixed 24 KB filter for everyone
+	@Test
+	void filtersAreSizedForWhatTheUserHasStored() {
+		assertThat(GmailMessageDedupe.filterBytes(1_000, 0.01)).isBetween(1_100L, 1_300L);
+		assertThat(GmailMessageDedupe.filterBytes(40_000, 0.01)).isBetween(47_000L, 49_000L);
+	}
+
+}
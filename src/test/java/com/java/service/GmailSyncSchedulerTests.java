@@ -0,0 +1,175 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.java.config.GmailConfig;
+import com.java.dto.GmailSyncResult;
+import com.java.model.GmailSyncState;
+import com.java.model.User;
+import com.java.repository.GmailSyncStateRepository;
+import com.java.repository.UserRepository;
+import com.java.service.GmailMessageFetcher.GmailFetchException;
+
+@ExtendWith(MockitoExtension.class)
+class GmailSyncSchedulerTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private GmailSyncStateRepository syncStateRepository;
+
+	@Mock
+	private GmailSyncService gmailSyncService;
+
+	@Mock
+	private ShardLeaseManager leaseManager;
+
+	@InjectMocks
+	private GmailSyncScheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		// run the syncs on the calling thread
+		ReflectionTestUtils.setField(scheduler, "gmailSyncExecutor", (Executor) Runnable::run);
+		ReflectionTestUtils.setField(scheduler, "pageSize", 2);
+	}
+
+	@Test
+	void onlyDueUsersAreSyncedAcrossPages() throws Exception {
+		User neverSynced = user(1L);
+		User backingOff = user(2L);
+		User recentlySynced = user(3L);
+
+		GmailSyncState backoff = new GmailSyncState(2L);
+		backoff.setNextAttemptAt(LocalDateTime.now().plusMinutes(10));
+		GmailSyncState recent = new GmailSyncState(3L);
+		recent.setLastSyncedAt(LocalDateTime.now().minusMinutes(1));
+
+		when(userRepository.findGmailConnectedAfter(eq(0L), any(Pageable.class)))
+				.thenReturn(List.of(neverSynced, backingOff));
+		when(userRepository.findGmailConnectedAfter(eq(2L), any(Pageable.class)))
+				.thenReturn(List.of(recentlySynced));
+		when(syncStateRepository.findAllById(anyList()))
+				.thenReturn(List.of(backoff))
+				.thenReturn(List.of(recent));
+		when(gmailSyncService.syncUser(neverSynced)).thenReturn(new GmailSyncResult(0, 0, true));
+
+		scheduler.syncAll();
+
+		verify(gmailSyncService).syncUser(neverSynced);
+		verify(gmailSyncService, never()).syncUser(backingOff);
+		verify(gmailSyncService, never()).syncUser(recentlySynced);
+	}
+
+	@Test
+	void rateLimitedUserBacksOffForRetryAfter() throws Exception {
+		User user = user(1L);
+		when(userRepository.findGmailConnectedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(user));
+		when(syncStateRepository.findAllById(anyList())).thenReturn(List.of());
+		when(syncStateRepository.findById(1L)).thenReturn(Optional.empty());
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("Retry-After", List.of("3600"));
+		when(gmailSyncService.syncUser(user)).thenThrow(new GoogleJsonResponseException(
+				new HttpResponseException.Builder(429, "Too Many Requests", headers), null));
+
+		LocalDateTime before = LocalDateTime.now();
+		scheduler.syncAll();
+
+		ArgumentCaptor<GmailSyncState> saved = ArgumentCaptor.forClass(GmailSyncState.class);
+		verify(syncStateRepository).save(saved.capture());
+		assertThat(saved.getValue().getConsecutiveFailures()).isEqualTo(1);
+		assertThat(saved.getValue().getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(3600));
+		assertThat(saved.getValue().getLastError()).startsWith("GoogleJsonResponseException");
+	}
+
+	@Test
+	void rateLimitedCallInsideABatchBacksOffForRetryAfter() throws Exception {
+		Throwable failure;
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (FakeGmailServer gmail = new FakeGmailServer()) {
+			gmail.addMessage("m1", "jobs@acme.com", "Your application", "Thanks for applying");
+			gmail.addMessage("m2", "jobs@globex.com", "Your application", "Thanks for applying");
+			gmail.rateLimit("m2", 1800);
+
+			GmailConfig gmailConfig = new GmailConfig();
+			ReflectionTestUtils.setField(gmailConfig, "rootUrl", gmail.rootUrl());
+			GmailQuotaLimiter quotaLimiter = new GmailQuotaLimiter();
+			quotaLimiter.initBuckets();
+			GmailMessageFetcher fetcher = new GmailMessageFetcher();
+			ReflectionTestUtils.setField(fetcher, "gmailTaskExecutor", executor);
+			ReflectionTestUtils.setField(fetcher, "quotaLimiter", quotaLimiter);
+
+			failure = catchThrowable(() -> fetcher.fetchMetadata(1L, gmailConfig.getGmailService("access-token"),
+					List.of("m1", "m2"), List.of("From", "Subject")));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(failure).isInstanceOf(GmailFetchException.class);
+		GmailFetchException fetchFailure = (GmailFetchException) failure;
+		assertThat(fetchFailure.getStatusCode()).isEqualTo(429);
+		assertThat(fetchFailure.isRateLimited()).isTrue();
+		assertThat(fetchFailure.getRetryAfter()).isEqualTo("1800");
+
+		// the sync fails with it the way GmailSyncService passes it on
+		User user = user(1L);
+		when(userRepository.findGmailConnectedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(user));
+		when(syncStateRepository.findAllById(anyList())).thenReturn(List.of());
+		when(syncStateRepository.findById(1L)).thenReturn(Optional.empty());
+		when(gmailSyncService.syncUser(user)).thenThrow(fetchFailure);
+
+		LocalDateTime before = LocalDateTime.now();
+		scheduler.syncAll();
+
+		ArgumentCaptor<GmailSyncState> saved = ArgumentCaptor.forClass(GmailSyncState.class);
+		verify(syncStateRepository).save(saved.capture());
+		assertThat(saved.getValue().getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1800));
+		assertThat(saved.getValue().getLastError()).startsWith("GmailFetchException");
+	}
+
+	@Test
+	void backoffDoublesUpToTheMaximum() {
+		assertThat(scheduler.backoff(1)).isBetween(Duration.ofSeconds(48), Duration.ofSeconds(72));
+		assertThat(scheduler.backoff(3)).isBetween(Duration.ofSeconds(192), Duration.ofSeconds(288));
+		assertThat(scheduler.backoff(50)).isLessThanOrEqualTo(Duration.ofMinutes(360).multipliedBy(12).dividedBy(10));
+	}
+
+	private static User user(Long id) {
+		User user = new User("user" + id + "@example.com", "secret");
+		user.setId(id);
+		user.setGmailConnected(true);
+		user.setGmailToken("token-" + id);
+		return user;
+	}
+
+}
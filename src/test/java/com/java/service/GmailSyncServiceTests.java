@@ -0,0 +1,234 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java.config.GmailConfig;
+import com.java.dto.GmailSyncResult;
+import com.java.model.GmailSyncState;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.GmailSyncStateRepository;
+
+@ExtendWith(MockitoExtension.class)
+class GmailSyncServiceTests {
+
+	@Mock
+	private GmailSyncStateRepository syncStateRepository;
+
+	@Mock
+	private GmailMessageDedupe messageDedupe;
+
+	@Mock
+	private JobApplicationService jobApplicationService;
+
+	@InjectMocks
+	private GmailSyncService gmailSyncService;
+
+	private FakeGmailServer gmail;
+
+	private ExecutorService gmailExecutor;
+
+	private GmailMessageFetcher messageFetcher;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		gmail = new FakeGmailServer();
+
+		GmailConfig gmailConfig = new GmailConfig();
+		ReflectionTestUtils.setField(gmailConfig, "rootUrl", gmail.rootUrl());
+		ReflectionTestUtils.setField(gmailSyncService, "gmailConfig", gmailConfig);
+		ReflectionTestUtils.setField(gmailSyncService, "classifier", new JobEmailClassifier());
+
+		GmailQuotaLimiter quotaLimiter = new GmailQuotaLimiter();
+		quotaLimiter.initBuckets();
+		ReflectionTestUtils.setField(gmailSyncService, "quotaLimiter", quotaLimiter);
+
+		gmailExecutor = Executors.newFixedThreadPool(4);
+		messageFetcher = new GmailMessageFetcher();
+		ReflectionTestUtils.setField(messageFetcher, "gmailTaskExecutor", gmailExecutor);
+		ReflectionTestUtils.setField(messageFetcher, "quotaLimiter", quotaLimiter);
+		ReflectionTestUtils.setField(gmailSyncService, "messageFetcher", messageFetcher);
+		ReflectionTestUtils.setField(gmailSyncService, "fullScanMaxMessages", 500);
+		ReflectionTestUtils.setField(gmailSyncService, "fullScanQuery", "newer_than:180d");
+
+		user = new User("user@example.com", "secret");
+		user.setId(7L);
+		user.setGmailToken("access-token");
+		user.setGmailConnected(true);
+
+		// nothing stored yet, every application handed over is created
+		lenient().when(jobApplicationService.createApplications(any(), eq(user)))
+				.thenAnswer(call -> ((List<?>) call.getArgument(0)).size());
+	}
+
+	@AfterEach
+	void tearDown() {
+		gmailExecutor.shutdownNow();
+		gmail.close();
+	}
+
+	@Test
+	void firstSyncScansInboxAndStoresCheckpoint() throws Exception {
+		gmail.profileHistoryId("100");
+		gmail.addMessage("m1", "Acme Careers <jobs@acme.com>", "Interview invitation for Backend Engineer",
+				"We would like to schedule an interview");
+		gmail.addMessage("m2", "Deals <news@shop.com>", "Weekly deals", "Save 20% this week");
+
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.empty());
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		assertThat(result.fullScan()).isTrue();
+		assertThat(result.messagesSeen()).isEqualTo(2);
+		assertThat(result.applicationsCreated()).isEqualTo(1);
+		assertThat(gmail.calls("history")).isZero();
+		assertThat(gmail.calls("batch")).isEqualTo(1);
+
+		JobApplication created = createdApplications().get(0);
+		assertThat(created.getCompanyName()).isEqualTo("Acme");
+		assertThat(created.getPosition()).isEqualTo("Backend Engineer");
+		assertThat(created.getStatus()).isEqualTo(ApplicationStatus.INTERVIEW_SCHEDULED);
+		assertThat(created.getSource()).isEqualTo(ApplicationSource.GMAIL);
+		assertThat(created.getGmailMessageId()).isEqualTo("m1");
+
+		assertThat(savedState().getHistoryId()).isEqualTo(BigInteger.valueOf(100));
+	}
+
+	@Test
+	void laterSyncOnlyFetchesHistoryDelta() throws Exception {
+		gmail.addMessage("m1", "Acme Careers <jobs@acme.com>", "Application for Backend Engineer", "Thanks for applying");
+		gmail.addMessage("m3", "Globex Recruiting <jobs@globex.com>", "Offer for Data Engineer", "We are happy to offer");
+		gmail.history(List.of("m3"), "120");
+
+		GmailSyncState state = new GmailSyncState(7L);
+		state.setHistoryId(BigInteger.valueOf(100));
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.of(state));
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		assertThat(result.fullScan()).isFalse();
+		assertThat(result.messagesSeen()).isEqualTo(1);
+		assertThat(gmail.calls("list")).isZero();
+		assertThat(gmail.calls("profile")).isZero();
+
+		JobApplication created = createdApplications().get(0);
+		assertThat(created.getGmailMessageId()).isEqualTo("m3");
+		assertThat(created.getStatus()).isEqualTo(ApplicationStatus.OFFER_RECEIVED);
+
+		assertThat(savedState().getHistoryId()).isEqualTo(BigInteger.valueOf(120));
+	}
+
+	@Test
+	void expiredCheckpointFallsBackToFullScan() throws Exception {
+		gmail.profileHistoryId("300");
+		gmail.addMessage("m1", "Acme Careers <jobs@acme.com>", "Application for Backend Engineer", "Thanks for applying");
+		gmail.expireHistory();
+
+		GmailSyncState state = new GmailSyncState(7L);
+		state.setHistoryId(BigInteger.valueOf(5));
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.of(state));
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		assertThat(result.fullScan()).isTrue();
+		assertThat(gmail.calls("history")).isEqualTo(1);
+		assertThat(gmail.calls("list")).isEqualTo(1);
+		assertThat(savedState().getHistoryId()).isEqualTo(BigInteger.valueOf(300));
+		assertThat(savedState().getLastFullScanAt()).isNotNull();
+	}
+
+	@Test
+	void messagesAreFetchedInBatches() throws Exception {
+		ReflectionTestUtils.setField(messageFetcher, "batchSize", 2);
+		gmail.profileHistoryId("50");
+		for (int i = 1; i <= 5; i++) {
+			gmail.addMessage("m" + i, "Acme Careers <jobs@acme.com>", "Application for Engineer " + i,
+					"Thanks for applying");
+		}
+
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.empty());
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		// 5 messages with 2 per batch -> 3 batch requests carrying 5 gets
+		assertThat(result.applicationsCreated()).isEqualTo(5);
+		assertThat(gmail.calls("batch")).isEqualTo(3);
+		assertThat(gmail.calls("get")).isEqualTo(5);
+
+		assertThat(createdApplications()).extracting(JobApplication::getGmailMessageId)
+				.containsExactly("m1", "m2", "m3", "m4", "m5");
+	}
+
+	@Test
+	void knownMessagesAreNotFetchedAgain() throws Exception {
+		gmail.profileHistoryId("80");
+		gmail.addMessage("m1", "Acme Careers <jobs@acme.com>", "Application for Backend Engineer", "Thanks for applying");
+		gmail.addMessage("m2", "Globex Careers <jobs@globex.com>", "Application for Data Engineer", "Thanks for applying");
+
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.empty());
+		when(messageDedupe.findKnown(7L, List.of("m1", "m2"))).thenReturn(Set.of("m1"));
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		assertThat(result.applicationsCreated()).isEqualTo(1);
+		assertThat(gmail.calls("get")).isEqualTo(1);
+		verify(messageDedupe).recordImported(7L, List.of("m2"));
+	}
+
+	// stored by an earlier sync that did not get to record it in the dedupe filter
+	@Test
+	void messagesTheInsertSkipsAreNotCountedAsCreated() throws Exception {
+		gmail.profileHistoryId("90");
+		gmail.addMessage("m1", "Acme Careers <jobs@acme.com>", "Application for Backend Engineer", "Thanks for applying");
+		gmail.addMessage("m2", "Globex Careers <jobs@globex.com>", "Application for Data Engineer", "Thanks for applying");
+
+		when(syncStateRepository.findById(7L)).thenReturn(Optional.empty());
+		when(jobApplicationService.createApplications(any(), eq(user))).thenReturn(1);
+
+		GmailSyncResult result = gmailSyncService.syncUser(user);
+
+		assertThat(createdApplications()).hasSize(2);
+		assertThat(result.applicationsCreated()).isEqualTo(1);
+	}
+
+	// all job emails of a sync are handed to the bulk insert in one call
+	@SuppressWarnings("unchecked")
+	private List<JobApplication> createdApplications() {
+		ArgumentCaptor<List<JobApplication>> created = ArgumentCaptor.forClass(List.class);
+		verify(jobApplicationService).createApplications(created.capture(), eq(user));
+		return created.getValue();
+	}
+
+	private GmailSyncState savedState() {
+		ArgumentCaptor<GmailSyncState> saved = ArgumentCaptor.forClass(GmailSyncState.class);
+		verify(syncStateRepository).save(saved.capture());
+		return saved.getValue();
+	}
+
+}
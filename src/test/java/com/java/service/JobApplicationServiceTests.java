@@ -0,0 +1,275 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.java.dto.ApplicationPatch;
+import com.java.dto.ApplicationSummary;
+import com.java.dto.DashboardStats;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.JobApplicationRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+
+@ExtendWith(MockitoExtension.class)
+class JobApplicationServiceTests {
+
+	@Mock
+	private JobApplicationRepository jobApplicationRepository;
+
+	@Mock
+	private ApplicationStatsService statsService;
+
+	@Mock
+	private ApplicationSearchIndex searchIndex;
+
+	@Mock
+	private GmailMessageDedupe messageDedupe;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@InjectMocks
+	private JobApplicationService jobApplicationService;
+
+	@Test
+	void applicationStatsUsesTwoQueries() {
+		User user = new User("user@example.com", "secret");
+		user.setId(1L);
+
+		LocalDate today = LocalDate.now();
+
+		ApplicationSummary recent = new ApplicationSummary(1L, "Acme", "Backend Engineer", ApplicationStatus.APPLIED,
+				ApplicationSource.MANUAL, null, today.minusDays(3), null, null, 0L);
+
+		ApplicationSummary interview = new ApplicationSummary(2L, "Globex", "Platform Engineer",
+				ApplicationStatus.INTERVIEW_SCHEDULED, ApplicationSource.GMAIL, null, today.minusDays(60),
+				today.plusDays(2), null, 0L);
+
+		ApplicationSummary offer = new ApplicationSummary(3L, "Initech", "SRE", ApplicationStatus.OFFER_RECEIVED,
+				ApplicationSource.INDEED, null, today.minusDays(90), null, null, 0L);
+
+		Map<ApplicationStatus, Long> byStatus = new EnumMap<>(ApplicationStatus.class);
+		for (ApplicationStatus status : ApplicationStatus.values()) {
+			byStatus.put(status, 0L);
+		}
+		byStatus.put(ApplicationStatus.APPLIED, 4L);
+		byStatus.put(ApplicationStatus.INTERVIEW_SCHEDULED, 2L);
+		byStatus.put(ApplicationStatus.OFFER_RECEIVED, 1L);
+
+		Map<ApplicationSource, Long> bySource = new EnumMap<>(ApplicationSource.class);
+		for (ApplicationSource source : ApplicationSource.values()) {
+			bySource.put(source, 0L);
+		}
+		bySource.put(ApplicationSource.MANUAL, 4L);
+		bySource.put(ApplicationSource.GMAIL, 2L);
+		bySource.put(ApplicationSource.INDEED, 1L);
+
+		when(statsService.getCounts(1L)).thenReturn(new ApplicationStatsService.Counts(7L, byStatus, bySource));
+		when(jobApplicationRepository.findDashboardApplications(eq(user), any(), any(),
+				eq(ApplicationStatus.OFFER_RECEIVED))).thenReturn(List.of(recent, interview, offer));
+
+		DashboardStats stats = jobApplicationService.getApplicationStats(user);
+
+		// one read of the stored counters and one list query per dashboard load,
+		// job_applications is never counted
+		verify(statsService, times(1)).getCounts(1L);
+		verify(jobApplicationRepository, times(1)).findDashboardApplications(eq(user), any(), any(),
+				eq(ApplicationStatus.OFFER_RECEIVED));
+		verifyNoMoreInteractions(jobApplicationRepository);
+
+		assertThat(stats.totalApplications()).isEqualTo(7L);
+		assertThat(stats.statusBreakdown().get(ApplicationStatus.APPLIED)).isEqualTo(4L);
+		assertThat(stats.statusBreakdown().get(ApplicationStatus.REJECTED)).isZero();
+		assertThat(stats.sourceBreakdown().get(ApplicationSource.GMAIL)).isEqualTo(2L);
+		assertThat(stats.recentApplications()).containsExactly(recent);
+		assertThat(stats.upcomingInterviews()).containsExactly(interview);
+		assertThat(stats.pendingOffers()).containsExactly(offer);
+	}
+
+	@Test
+	void patchChangesOnlyTheGivenFields() {
+		User user = owner();
+		JobApplication stored = storedApplication(user, 3L);
+		when(jobApplicationRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(stored));
+
+		ApplicationPatch patch = new ApplicationPatch();
+		patch.setVersion(3L);
+		patch.setStatus(ApplicationStatus.OFFER_RECEIVED);
+		patch.setNotes("Call back on monday");
+
+		JobApplication patched = jobApplicationService.patchApplication(1L, patch, user);
+
+		assertThat(patched.getStatus()).isEqualTo(ApplicationStatus.OFFER_RECEIVED);
+		assertThat(patched.getNotes()).isEqualTo("Call back on monday");
+		assertThat(patched.getCompanyName()).isEqualTo("Acme");
+		assertThat(patched.getPosition()).isEqualTo("Backend Engineer");
+
+		// managed entity flushed once, no save (merge) of the whole row
+		verify(entityManager).flush();
+		verify(jobApplicationRepository, never()).save(any());
+		verify(statsService).applicationChanged(1L, ApplicationStatus.APPLIED, ApplicationSource.MANUAL, patched);
+	}
+
+	@Test
+	void patchWithStaleVersionIsAConflict() {
+		User user = owner();
+		JobApplication stored = storedApplication(user, 4L);
+		when(jobApplicationRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(stored));
+
+		ApplicationPatch patch = new ApplicationPatch();
+		patch.setVersion(3L);
+		patch.setStatus(ApplicationStatus.REJECTED);
+
+		assertThatThrownBy(() -> jobApplicationService.patchApplication(1L, patch, user))
+				.isInstanceOf(ApplicationConflictException.class);
+
+		assertThat(stored.getStatus()).isEqualTo(ApplicationStatus.APPLIED);
+		verify(entityManager, never()).flush();
+		verifyNoInteractions(statsService);
+	}
+
+	@Test
+	void concurrentPatchesOfTheSameVersionOnlyOneWins() {
+		User user = owner();
+
+		// both clients read version 3, the second update finds the row already at version 4
+		when(jobApplicationRepository.findByIdAndUserId(1L, 1L))
+				.thenReturn(Optional.of(storedApplication(user, 3L)))
+				.thenReturn(Optional.of(storedApplication(user, 3L)));
+		doNothing()
+				.doThrow(new OptimisticLockException("Row was updated or deleted by another transaction"))
+				.when(entityManager).flush();
+
+		ApplicationPatch first = new ApplicationPatch();
+		first.setVersion(3L);
+		first.setStatus(ApplicationStatus.INTERVIEW_SCHEDULED);
+
+		ApplicationPatch second = new ApplicationPatch();
+		second.setVersion(3L);
+		second.setStatus(ApplicationStatus.REJECTED);
+
+		assertThat(jobApplicationService.patchApplication(1L, first, user).getStatus())
+				.isEqualTo(ApplicationStatus.INTERVIEW_SCHEDULED);
+		assertThatThrownBy(() -> jobApplicationService.patchApplication(1L, second, user))
+				.isInstanceOf(ApplicationConflictException.class)
+				.hasCauseInstanceOf(OptimisticLockException.class);
+
+		// only the winning update moved the counters
+		verify(statsService, times(1)).applicationChanged(any(), any(), any(), any());
+	}
+
+	@Test
+	void deleteChecksOwnershipInTheDeleteStatement() {
+		User user = owner();
+		List<Object[]> counts = List.<Object[]>of(new Object[] { ApplicationStatus.APPLIED, ApplicationSource.MANUAL, 1L });
+		when(jobApplicationRepository.countByStatusAndSourceForIds(List.of(42L), 1L)).thenReturn(counts);
+		when(jobApplicationRepository.deleteByIdAndUserId(42L, 1L)).thenReturn(1);
+
+		jobApplicationService.deleteApplication(42L, user);
+
+		// no entity is loaded before the delete
+		verify(jobApplicationRepository, never()).findById(any());
+		verify(jobApplicationRepository, never()).findByIdAndUserId(any(), any());
+		verify(statsService).applicationsRemoved(1L, counts);
+		verify(searchIndex).remove(1L, 42L);
+		verify(messageDedupe).evict(1L);
+	}
+
+	// a stale dedupe answer or a repeated message must not fail the whole batch on the unique key
+	@Test
+	void gmailMessagesTheUserAlreadyHasAreNotInsertedAgain() {
+		User user = owner();
+		JobApplication known = gmailApplication(user, "Acme", "m1");
+		JobApplication fresh = gmailApplication(user, "Globex", "m2");
+		JobApplication repeated = gmailApplication(user, "Initech", "m2");
+		JobApplication manual = new JobApplication(user, "Hooli", "SRE");
+		when(jobApplicationRepository.findKnownGmailMessageIds(1L, List.of("m1", "m2"))).thenReturn(List.of("m1"));
+
+		assertThat(jobApplicationService.createApplications(List.of(known, fresh, repeated, manual), user)).isEqualTo(2);
+
+		verify(entityManager).persist(fresh);
+		verify(entityManager).persist(manual);
+		verify(entityManager, never()).persist(known);
+		verify(entityManager, never()).persist(repeated);
+		verify(statsService).applicationsAdded(1L, List.of(fresh, manual));
+	}
+
+	@Test
+	void deletingAnotherUsersApplicationFails() {
+		User user = owner();
+		when(jobApplicationRepository.deleteByIdAndUserId(42L, 1L)).thenReturn(0);
+
+		assertThatThrownBy(() -> jobApplicationService.deleteApplication(42L, user))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessage("Application not found");
+
+		verifyNoInteractions(statsService, searchIndex);
+	}
+
+	@Test
+	void batchDeleteReturnsDeletedCount() {
+		User user = owner();
+		when(jobApplicationRepository.deleteByIdInAndUserId(List.of(5L, 6L, 7L), 1L)).thenReturn(2);
+
+		int deleted = jobApplicationService.deleteApplications(List.of(5L, 6L, 7L), user);
+
+		assertThat(deleted).isEqualTo(2);
+		verify(jobApplicationRepository).countByStatusAndSourceForIds(List.of(5L, 6L, 7L), 1L);
+		verify(jobApplicationRepository, times(1)).deleteByIdInAndUserId(any(), any());
+	}
+
+	@Test
+	void recentApplicationsWithoutALimitAreEmpty() {
+		assertThat(jobApplicationService.getRecentApplication(owner(), 0)).isEmpty();
+		assertThat(jobApplicationService.getRecentApplication(owner(), -5)).isEmpty();
+
+		verifyNoInteractions(jobApplicationRepository);
+	}
+
+	private static User owner() {
+		User user = new User("user@example.com", "secret");
+		user.setId(1L);
+		return user;
+	}
+
+	private static JobApplication storedApplication(User user, Long version) {
+		JobApplication application = new JobApplication(user, "Acme", "Backend Engineer");
+		application.setId(1L);
+		application.setVersion(version);
+		return application;
+	}
+
+	private static JobApplication gmailApplication(User user, String company, String messageId) {
+		JobApplication application = new JobApplication(user, company, "Backend Engineer");
+		application.setSource(ApplicationSource.GMAIL);
+		application.setGmailMessageId(messageId);
+		return application;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.java.config.MetricsConfig;
+import com.java.jobtracker.JobtrackerApplication;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+import com.java.security.JwtUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/* The metrics of the running app, the real context with the real registry and scrape endpoint */
+@SpringBootTest(classes = JobtrackerApplication.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+	@Autowired
+	private JobApplicationService service;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void serviceMethodsAreTimedAndScraped() throws Exception {
+		User user = userRepository.save(new User("metrics@example.com", "secret"));
+
+		assertThat(service.getTotalApplication(user)).isZero();
+		assertThatThrownBy(() -> service.deleteApplication(-1L, user)).isInstanceOf(RuntimeException.class);
+
+		Timer total = registry.find(MetricsConfig.SERVICE_TIMER).tag("method", "getTotalApplication").timer();
+		assertThat(total).isNotNull();
+		assertThat(total.count()).isGreaterThanOrEqualTo(1);
+		assertThat(total.getId().getTag("exception")).isEqualTo("none");
+
+		Timer failed = registry.find(MetricsConfig.SERVICE_TIMER).tag("method", "deleteApplication").timer();
+		assertThat(failed).isNotNull();
+		assertThat(failed.getId().getTag("exception")).isEqualTo("RuntimeException");
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(scrape).contains("jobtracker_service_seconds_count{")
+				.contains("method=\"getTotalApplication\"")
+				.contains("spring_data_repository_invocations_seconds");
+	}
+
+	@Test
+	void jwtChecksAreCountedByResultAndException() {
+		double valid = count("result", "valid", "exception", "none");
+		double malformed = count("result", "invalid", "exception", "MalformedJwtException");
+
+		assertThat(jwtUtils.validateToken(jwtUtils.generateTokenFromEmail("user@example.com"))).isTrue();
+		assertThat(jwtUtils.validateToken("not-a-token")).isFalse();
+
+		assertThat(count("result", "valid", "exception", "none")).isEqualTo(valid + 1);
+		assertThat(count("result", "invalid", "exception", "MalformedJwtException")).isEqualTo(malformed + 1);
+	}
+
+	private double count(String... tags) {
+		Counter counter = registry.find(MetricsConfig.JWT_VALIDATIONS).tags(tags).counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.java.config.QueryCounter;
+import com.java.dto.ApplicationPage;
+import com.java.model.JobApplication;
+import com.java.model.JobApplication.ApplicationSource;
+import com.java.model.JobApplication.ApplicationStatus;
+import com.java.model.User;
+import com.java.repository.UserRepository;
+
+/* Statement budgets of the read paths, against a real (H2) database
+ * a change that adds a query per row (N+1) or an extra round trip fails here
+ */
+class QueryCountTests {
+
+	private static ConfigurableApplicationContext context;
+	private static JobApplicationService service;
+	private static User user;
+
+	@BeforeAll
+	static void start() {
+		context = new SpringApplicationBuilder(QueryCountTestApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1",
+						"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"spring.jpa.properties.jakarta.persistence.sharedCache.mode=NONE")
+				.run();
+		service = context.getBean(JobApplicationService.class);
+
+		user = context.getBean(UserRepository.class).save(new User("count@example.com", "secret"));
+
+		List<JobApplication> applications = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			ApplicationStatus status = i % 10 == 0 ? ApplicationStatus.OFFER_RECEIVED
+					: i % 3 == 0 ? ApplicationStatus.INTERVIEW_SCHEDULED : ApplicationStatus.APPLIED;
+			JobApplication application = new JobApplication(user, "Company " + i, "Backend Engineer", status,
+					ApplicationSource.MANUAL);
+			application.setAppliedDate(LocalDate.now().minusDays(i));
+			if (status == ApplicationStatus.INTERVIEW_SCHEDULED) {
+				application.setInterviewDate(LocalDate.now().plusDays(i));
+			}
+			applications.add(application);
+		}
+		service.createApplications(applications, user);
+	}
+
+	@AfterAll
+	static void stop() {
+		context.close();
+	}
+
+	@Test
+	void dashboardReadsCountersAndOneListQuery() {
+		try (QueryCounter.Scope scope = QueryCounter.start()) {
+			service.getApplicationStats(user);
+
+			assertThat(scope.count()).as("statements: %s", scope.statements()).isLessThanOrEqualTo(2);
+		}
+	}
+
+	@Test
+	void everyListingPageIsOneQuery() {
+		try (QueryCounter.Scope scope = QueryCounter.start()) {
+			ApplicationPage first = service.getApplicationPage(user, null, 10);
+			service.getApplicationPage(user, first.nextCursor(), 10);
+
+			assertThat(scope.count()).as("statements: %s", scope.statements()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void searchLoadsItsPageInOneQuery() {
+		// the first search of a user builds the index
+		service.searchApplication(user, "company", 0, 10);
+
+		try (QueryCounter.Scope scope = QueryCounter.start()) {
+			assertThat(service.searchApplication(user, "company", 0, 10).items()).hasSize(10);
+
+			assertThat(scope.count()).as("statements: %s", scope.statements()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void readingTheUserOfEveryApplicationIsNotAQueryPerRow() {
+		TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+		try (QueryCounter.Scope scope = QueryCounter.start()) {
+			transaction.executeWithoutResult(status -> service.getApplicationPage(user, null, 20).items()
+					.forEach(application -> application.getUser().getEmail()));
+
+			// the page, then the one shared user at most once
+			assertThat(scope.count()).as("statements: %s", scope.statements()).isLessThanOrEqualTo(2);
+			assertThat(scope.repeated()).isEmpty();
+		}
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.java.model")
+	@EnableJpaRepositories("com.java.repository")
+	@Import({ JobApplicationService.class, ApplicationStatsService.class, ApplicationSearchIndex.class,
+			GmailMessageDedupe.class })
+	static class QueryCountTestApplication {
+	}
+
+}
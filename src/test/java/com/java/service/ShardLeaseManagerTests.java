@@ -0,0 +1,116 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/* Two app contexts (two "nodes") sharing one H2 database, the leases are the only coordination */
+class ShardLeaseManagerTests {
+
+	private static final int SHARDS = 8;
+
+	private final Instant start = Instant.parse("2024-03-01T10:00:00Z");
+
+	private ConfigurableApplicationContext nodeA;
+	private ConfigurableApplicationContext nodeB;
+
+	@AfterEach
+	void tearDown() {
+		if (nodeB != null) {
+			nodeB.close();
+		}
+		if (nodeA != null) {
+			nodeA.close();
+		}
+	}
+
+	@Test
+	void shardsAreSplitBetweenNodesAndTakenOverWhenANodeDies() {
+		nodeA = startNode("node-a");
+		nodeB = startNode("node-b");
+		ShardLeaseManager a = nodeA.getBean(ShardLeaseManager.class);
+		ShardLeaseManager b = nodeB.getBean(ShardLeaseManager.class);
+
+		at(a, b, 0);
+		a.heartbeat();
+		assertThat(a.ownedShards()).hasSize(SHARDS);
+
+		// b joins, a gives half back, b claims it on its next heartbeat
+		b.heartbeat();
+		a.heartbeat();
+		b.heartbeat();
+
+		assertThat(a.ownedShards()).hasSize(SHARDS / 2);
+		assertThat(b.ownedShards()).hasSize(SHARDS / 2);
+		assertThat(a.ownedShards()).doesNotContainAnyElementsOf(b.ownedShards());
+		Set<Integer> all = new HashSet<>(a.ownedShards());
+		all.addAll(b.ownedShards());
+		assertThat(all).isEqualTo(allShards());
+
+		// a stops heartbeating, b keeps going and takes everything once a's leases ran out
+		at(a, b, 20);
+		b.heartbeat();
+		assertThat(b.ownedShards()).hasSize(SHARDS / 2);
+
+		at(a, b, 40);
+		b.heartbeat();
+		assertThat(b.ownedShards()).isEqualTo(allShards());
+		assertThat(a.ownedShards()).isEmpty();
+		assertThat(a.ownsUser(3L)).isFalse();
+		assertThat(b.ownsUser(3L)).isTrue();
+	}
+
+	private ConfigurableApplicationContext startNode(String nodeId) {
+		return new SpringApplicationBuilder(LeaseTestApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:shard-leases;DB_CLOSE_DELAY=-1",
+						"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"spring.jpa.properties.jakarta.persistence.sharedCache.mode=NONE",
+						"gmail.sharding.enabled=true",
+						"gmail.sharding.shards=" + SHARDS,
+						"gmail.sharding.lease-ttl-seconds=30",
+						"gmail.sharding.node-id=" + nodeId)
+				.run();
+	}
+
+	// both node clocks at start + seconds
+	private void at(ShardLeaseManager a, ShardLeaseManager b, long seconds) {
+		Clock clock = Clock.fixed(start.plusSeconds(seconds), ZoneOffset.UTC);
+		ReflectionTestUtils.setField(a, "clock", clock);
+		ReflectionTestUtils.setField(b, "clock", clock);
+	}
+
+	private static Set<Integer> allShards() {
+		return IntStream.range(0, SHARDS).boxed().collect(Collectors.toSet());
+	}
+
+	// just the persistence layer and the lease manager, heartbeats are driven by the test
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.java.model")
+	@EnableJpaRepositories("com.java.repository")
+	@Import(ShardLeaseManager.class)
+	static class LeaseTestApplication {
+	}
+
+}
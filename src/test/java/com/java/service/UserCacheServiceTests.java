@@ -0,0 +1,57 @@
+package com.java.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java.model.User;
+import com.java.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheServiceTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@InjectMocks
+	private UserCacheService userCacheService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(userCacheService, "maxSize", 100L);
+		ReflectionTestUtils.setField(userCacheService, "ttlSeconds", 300L);
+		userCacheService.initCache();
+	}
+
+	// one database load, but every caller gets its own copy
+	@Test
+	void changingAReturnedUserDoesNotChangeTheCachedOne() {
+		User stored = new User("user@example.com", "secret", "Ada", "Lovelace");
+		stored.setId(7L);
+		when(userRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+		User first = userCacheService.getUser(7L);
+		first.setGmailToken("leaked");
+		first.setActive(false);
+		stored.setFirstName("Changed");
+
+		User second = userCacheService.getUser(7L);
+		assertThat(second).isNotSameAs(first).isNotSameAs(stored);
+		assertThat(second.getGmailToken()).isNull();
+		assertThat(second.isActive()).isTrue();
+		assertThat(second.getFirstName()).isEqualTo("Ada");
+		verify(userRepository, times(1)).findById(7L);
+	}
+
+}